@@ -25,12 +25,20 @@ import jakarta.enterprise.util.AnnotationLiteral;
 
 import java.lang.annotation.Annotation;
 import java.util.Iterator;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.ibatis.session.SqlSessionFactory;
 
 public final class CDIUtils {
 
+  /**
+   * Resolutions done since the container started, so bean creation and deserialization do not need to query the
+   * BeanManager again. Cleared by {@link MybatisExtension} when their container shuts down.
+   */
+  private static final Map<ResolutionKey, Resolution> RESOLUTIONS = new ConcurrentHashMap<>();
+
   private CDIUtils() {
     // this class cannot be instantiated
   }
@@ -54,9 +62,13 @@ public final class CDIUtils {
    */
   public static <T> SqlSessionManagerRegistry getRegistry(CreationalContext<T> creationalContext) {
     final BeanManager beanManager = getBeanManager();
-    Iterator<Bean<? extends Object>> beans = beanManager.getBeans(SqlSessionManagerRegistry.class).iterator();
-    return (SqlSessionManagerRegistry) beanManager.getReference(beans.next(), SqlSessionManagerRegistry.class,
-        creationalContext);
+    final ResolutionKey key = new ResolutionKey(beanManager, SqlSessionManagerRegistry.class, null, Set.of());
+    Resolution resolution = RESOLUTIONS.get(key);
+    if (resolution == null) {
+      Iterator<Bean<? extends Object>> beans = beanManager.getBeans(SqlSessionManagerRegistry.class).iterator();
+      resolution = resolve(beanManager, key, beans.next(), creationalContext);
+    }
+    return (SqlSessionManagerRegistry) resolution.getReference(beanManager, creationalContext);
   }
 
   /**
@@ -74,17 +86,62 @@ public final class CDIUtils {
   public static <T> SqlSessionFactory findSqlSessionFactory(String name, Set<Annotation> qualifiers,
       CreationalContext<T> creationalContext) {
     final BeanManager beanManager = getBeanManager();
-    Set<Bean<? extends Object>> beans;
-    if (name != null) {
-      beans = beanManager.getBeans(name);
-    } else {
-      beans = beanManager.getBeans(SqlSessionFactory.class, qualifiers.toArray(new Annotation[] {}));
+    final ResolutionKey key = new ResolutionKey(beanManager, SqlSessionFactory.class, name,
+        name != null ? Set.of() : qualifiers);
+    Resolution resolution = RESOLUTIONS.get(key);
+    if (resolution == null) {
+      Set<Bean<? extends Object>> beans;
+      if (name != null) {
+        beans = beanManager.getBeans(name);
+      } else {
+        beans = beanManager.getBeans(SqlSessionFactory.class, qualifiers.toArray(new Annotation[] {}));
+      }
+      Bean<? extends Object> bean = beanManager.resolve(beans);
+      if (bean == null) {
+        throw new MybatisCdiConfigurationException("There are no SqlSessionFactory producers properly configured.");
+      }
+      resolution = resolve(beanManager, key, bean, creationalContext);
     }
-    Bean<? extends Object> bean = beanManager.resolve(beans);
-    if (bean == null) {
-      throw new MybatisCdiConfigurationException("There are no SqlSessionFactory producers properly configured.");
+    return (SqlSessionFactory) resolution.getReference(beanManager, creationalContext);
+  }
+
+  /**
+   * Caches the bean. Its reference is cached too when it is a client proxy, otherwise a new reference is requested on
+   * each lookup to honor the scope of the bean.
+   */
+  private static <T> Resolution resolve(BeanManager beanManager, ResolutionKey key, Bean<?> bean,
+      CreationalContext<T> creationalContext) {
+    Object reference = null;
+    if (beanManager.isNormalScope(bean.getScope())) {
+      reference = beanManager.getReference(bean, key.type(), creationalContext);
     }
-    return (SqlSessionFactory) beanManager.getReference(bean, SqlSessionFactory.class, creationalContext);
+    Resolution resolution = new Resolution(bean, key.type(), reference);
+    Resolution previous = RESOLUTIONS.putIfAbsent(key, resolution);
+    return previous != null ? previous : resolution;
+  }
+
+  /**
+   * Forgets the resolutions cached for a container, leaving those of the other containers sharing this class.
+   *
+   * @param beanManager
+   *          the bean manager of the container
+   */
+  static void clearCache(BeanManager beanManager) {
+    RESOLUTIONS.keySet().removeIf(key -> key.beanManager().equals(beanManager));
+  }
+
+  private record ResolutionKey(BeanManager beanManager, Class<?> type, String name, Set<Annotation> qualifiers) {
+  }
+
+  private record Resolution(Bean<?> bean, Class<?> type, Object reference) {
+
+    <T> Object getReference(BeanManager beanManager, CreationalContext<T> creationalContext) {
+      if (this.reference != null) {
+        return this.reference;
+      }
+      return beanManager.getReference(this.bean, this.type, creationalContext);
+    }
+
   }
 
   public static class SerializableDefaultAnnotationLiteral extends AnnotationLiteral<Default> {
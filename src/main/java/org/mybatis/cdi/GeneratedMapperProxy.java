@@ -0,0 +1,166 @@
+/*
+ *    Copyright 2013-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.cdi;
+
+import jakarta.enterprise.context.spi.CreationalContext;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Optional;
+
+import org.apache.ibatis.session.SqlSessionManager;
+
+/**
+ * Base class of the mapper proxies generated at build time by
+ * {@link org.mybatis.cdi.processor.MapperProxyProcessor}. Each generated class implements one {@link Mapper} interface
+ * and forwards every method directly to the MyBatis mapper, so no {@code InvocationHandler} is involved.
+ * <p>
+ * When a generated proxy is found for a mapper type it is used by {@link MyBatisBean} instead of a
+ * {@code java.lang.reflect.Proxy}.
+ *
+ * @param <T>
+ *          the mapper type
+ */
+public abstract class GeneratedMapperProxy<T> implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  /**
+   * Suffix appended to the binary name of the mapper interface to get the name of its generated proxy.
+   */
+  public static final String CLASS_NAME_SUFFIX = "_MybatisCdiProxy";
+
+  private static final MethodType CONSTRUCTOR_TYPE = MethodType.methodType(void.class, MyBatisBean.class,
+      CreationalContext.class);
+
+  private static final ClassValue<Optional<MethodHandle>> CONSTRUCTORS = new ClassValue<>() {
+    @Override
+    protected Optional<MethodHandle> computeValue(Class<?> type) {
+      return findConstructor(type);
+    }
+  };
+
+  private transient SqlSessionManager manager;
+
+  private transient T mapper;
+
+  private transient volatile RoutedMapper<T> routed;
+
+  private final MyBatisBean bean;
+
+  private final CreationalContext<?> creationalContext;
+
+  /**
+   * Instantiates a new generated mapper proxy.
+   *
+   * @param bean
+   *          the bean
+   * @param creationalContext
+   *          the creational context
+   */
+  protected GeneratedMapperProxy(MyBatisBean bean, CreationalContext<?> creationalContext) {
+    this.bean = bean;
+    this.creationalContext = creationalContext;
+    init();
+  }
+
+  /**
+   * Gets the MyBatis mapper the current call is forwarded to. The manager is enlisted in the running transaction first,
+   * so lazy transactions start its session and read-only ones route the call to its read replica.
+   *
+   * @return the mapper
+   */
+  protected final T delegate() {
+    SqlSessionManager target = TransactionContext.enlist(this.manager);
+    return target == this.manager ? this.mapper : getRoutedMapper(target);
+  }
+
+  @SuppressWarnings("unchecked")
+  private T getRoutedMapper(SqlSessionManager target) {
+    RoutedMapper<T> r = this.routed;
+    if (r == null || r.manager() != target) {
+      r = new RoutedMapper<>(target, (T) this.bean.getMapper(target));
+      this.routed = r;
+    }
+    return r.mapper();
+  }
+
+  @SuppressWarnings("unchecked")
+  private void init() {
+    this.manager = this.bean.findSqlSessionManager(this.creationalContext);
+    this.mapper = (T) this.bean.getMapper(this.manager);
+  }
+
+  private void readObject(ObjectInputStream is) throws ClassNotFoundException, IOException {
+    is.defaultReadObject();
+    init();
+  }
+
+  /**
+   * Creates the generated proxy for the bean type.
+   *
+   * @param bean
+   *          the bean
+   * @param creationalContext
+   *          the creational context
+   *
+   * @return the proxy or null if no proxy was generated for the bean type
+   */
+  static Object newInstance(MyBatisBean bean, CreationalContext<?> creationalContext) {
+    Optional<MethodHandle> constructor = CONSTRUCTORS.get(bean.type);
+    if (constructor.isEmpty()) {
+      return null;
+    }
+    try {
+      return (Object) constructor.get().invokeExact(bean, creationalContext);
+    } catch (RuntimeException | Error e) {
+      throw e;
+    } catch (Throwable e) {
+      throw new IllegalStateException("Could not create the generated proxy of " + bean.type.getName(), e);
+    }
+  }
+
+  private static Optional<MethodHandle> findConstructor(Class<?> type) {
+    Class<?> proxyClass;
+    try {
+      proxyClass = Class.forName(type.getName() + CLASS_NAME_SUFFIX, false, type.getClassLoader());
+    } catch (ClassNotFoundException | LinkageError e) {
+      return Optional.empty();
+    }
+    if (!GeneratedMapperProxy.class.isAssignableFrom(proxyClass) || !type.isAssignableFrom(proxyClass)) {
+      return Optional.empty();
+    }
+    try {
+      return Optional.of(MethodHandles.lookup().findConstructor(proxyClass, CONSTRUCTOR_TYPE)
+          .asType(MethodType.methodType(Object.class, MyBatisBean.class, CreationalContext.class)));
+    } catch (NoSuchMethodException | IllegalAccessException e) {
+      throw new MybatisCdiConfigurationException(
+          "Generated mapper proxy %s must have a public (MyBatisBean, CreationalContext) constructor"
+              .formatted(proxyClass.getName()));
+    }
+  }
+
+  /**
+   * Mapper bound to the manager a read-only transaction routed the calls to.
+   */
+  private record RoutedMapper<T>(SqlSessionManager manager, T mapper) {
+  }
+
+}
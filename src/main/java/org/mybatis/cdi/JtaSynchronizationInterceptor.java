@@ -0,0 +1,55 @@
+/*
+ *    Copyright 2013-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.cdi;
+
+import jakarta.enterprise.inject.Instance;
+import jakarta.inject.Inject;
+import jakarta.interceptor.Interceptor;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+
+/**
+ * Interceptor for JTA transactions whose sessions live as long as the JTA transaction. MyBatis should be configured to
+ * use the {@code MANAGED} transaction manager.
+ * <p>
+ * Instead of committing and closing its sessions when the intercepted method returns, the interceptor registers a
+ * {@code Synchronization} through the {@code TransactionSynchronizationRegistry}. The sessions are flushed in
+ * {@code beforeCompletion} and closed in {@code afterCompletion}, and every transactional method called in the same
+ * JTA transaction, for instance a container-managed one, reuses them. It needs a
+ * {@code TransactionSynchronizationRegistry} bean, without it the interceptor behaves as
+ * {@link JtaTransactionInterceptor}.
+ */
+@Transactional
+@Interceptor
+public class JtaSynchronizationInterceptor extends JtaTransactionInterceptor {
+
+  private static final long serialVersionUID = 1L;
+
+  @Inject
+  private transient Instance<TransactionSynchronizationRegistry> synchronizationRegistry;
+
+  private transient TransactionSynchronizationRegistry cachedSynchronizationRegistry;
+
+  @Override
+  protected TransactionSynchronizationRegistry getSynchronizationRegistry() {
+    TransactionSynchronizationRegistry registry = this.cachedSynchronizationRegistry;
+    if (registry == null && this.synchronizationRegistry.isResolvable()) {
+      registry = this.synchronizationRegistry.get();
+      this.cachedSynchronizationRegistry = registry;
+    }
+    return registry;
+  }
+
+}
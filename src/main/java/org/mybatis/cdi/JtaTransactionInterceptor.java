@@ -20,14 +20,20 @@ import jakarta.inject.Inject;
 import jakarta.interceptor.Interceptor;
 import jakarta.transaction.HeuristicMixedException;
 import jakarta.transaction.HeuristicRollbackException;
+import jakarta.transaction.InvalidTransactionException;
 import jakarta.transaction.NotSupportedException;
 import jakarta.transaction.RollbackException;
 import jakarta.transaction.Status;
 import jakarta.transaction.SystemException;
+import jakarta.transaction.Transaction;
+import jakarta.transaction.TransactionManager;
 import jakarta.transaction.UserTransaction;
 
 /**
  * Interceptor for JTA transactions. MyBatis should be configured to use the {@code MANAGED} transaction manager.
+ * <p>
+ * Propagations that suspend a running JTA transaction ({@link Propagation#REQUIRES_NEW} and
+ * {@link Propagation#NOT_SUPPORTED}) need a {@code TransactionManager} bean.
  */
 @Transactional
 @Interceptor
@@ -38,14 +44,64 @@ public class JtaTransactionInterceptor extends LocalTransactionInterceptor {
   @Inject
   private transient Instance<UserTransaction> userTransaction;
 
+  @Inject
+  private transient Instance<TransactionManager> transactionManager;
+
+  private transient UserTransaction cachedUserTransaction;
+
+  /**
+   * Gets the user transaction, resolved on the first call only.
+   *
+   * @return the user transaction
+   */
+  private UserTransaction userTransaction() {
+    UserTransaction ut = this.cachedUserTransaction;
+    if (ut == null) {
+      ut = this.userTransaction.get();
+      this.cachedUserTransaction = ut;
+    }
+    return ut;
+  }
+
   @Override
   protected boolean isTransactionActive() throws SystemException {
-    return this.userTransaction.get().getStatus() != Status.STATUS_NO_TRANSACTION;
+    return userTransaction().getStatus() != Status.STATUS_NO_TRANSACTION;
   }
 
   @Override
   protected void beginJta() throws NotSupportedException, SystemException {
-    this.userTransaction.get().begin();
+    UserTransaction ut = userTransaction();
+    TransactionContext context = TransactionContext.current();
+    if (context == null || !context.hasDeadline()) {
+      ut.begin();
+      return;
+    }
+    ut.setTransactionTimeout(context.getRemainingSeconds());
+    try {
+      ut.begin();
+    } finally {
+      // restores the default timeout for the transactions begun later on this thread
+      ut.setTransactionTimeout(0);
+    }
+  }
+
+  @Override
+  protected Transaction suspendJta() throws SystemException {
+    if (!isTransactionActive()) {
+      return null;
+    }
+    if (!this.transactionManager.isResolvable()) {
+      throw new MybatisCdiTransactionException(
+          "A TransactionManager bean is needed to suspend the running JTA transaction");
+    }
+    return this.transactionManager.get().suspend();
+  }
+
+  @Override
+  protected void resumeJta(Transaction transaction) throws InvalidTransactionException, SystemException {
+    if (transaction != null) {
+      this.transactionManager.get().resume(transaction);
+    }
   }
 
   @Override
@@ -53,12 +109,12 @@ public class JtaTransactionInterceptor extends LocalTransactionInterceptor {
       throws SystemException, RollbackException, HeuristicMixedException, HeuristicRollbackException {
     if (isExternaTransaction) {
       if (needsRollback) {
-        this.userTransaction.get().setRollbackOnly();
+        userTransaction().setRollbackOnly();
       }
     } else if (needsRollback) {
-      this.userTransaction.get().rollback();
+      userTransaction().rollback();
     } else {
-      this.userTransaction.get().commit();
+      userTransaction().commit();
     }
   }
 
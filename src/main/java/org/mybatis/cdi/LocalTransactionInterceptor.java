@@ -21,13 +21,18 @@ import jakarta.interceptor.Interceptor;
 import jakarta.interceptor.InvocationContext;
 import jakarta.transaction.HeuristicMixedException;
 import jakarta.transaction.HeuristicRollbackException;
+import jakarta.transaction.InvalidTransactionException;
 import jakarta.transaction.NotSupportedException;
 import jakarta.transaction.RollbackException;
 import jakarta.transaction.SystemException;
+import jakarta.transaction.Transaction;
+import jakarta.transaction.TransactionSynchronizationRegistry;
 
 import java.io.Serializable;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.UndeclaredThrowableException;
+import java.util.Collection;
+import java.util.function.Function;
 
 import org.apache.ibatis.session.SqlSessionManager;
 
@@ -44,9 +49,27 @@ public class LocalTransactionInterceptor implements Serializable {
 
   private static final long serialVersionUID = 1L;
 
+  /**
+   * System property limiting the number of threads completing the sessions of {@link Transactional#parallelCommit()}
+   * transactions, 32 by default. Sessions no idle thread can take are completed on the calling thread.
+   */
+  public static final String PARALLEL_COMMIT_THREADS_PROPERTY = "mybatis-cdi.commit.threads";
+
   @Inject
   private transient SqlSessionManagerRegistry registry;
 
+  /**
+   * Bound once, so intercepted calls do not allocate a method reference.
+   */
+  private final AnnotationResolver annotationResolver;
+
+  /**
+   * Instantiates a new local transaction interceptor.
+   */
+  public LocalTransactionInterceptor() {
+    this.annotationResolver = this::getTransactionalAnnotation;
+  }
+
   /**
    * Invoke.
    *
@@ -60,37 +83,227 @@ public class LocalTransactionInterceptor implements Serializable {
    */
   @AroundInvoke
   public Object invoke(InvocationContext ctx) throws Exception {
-    Transactional transactional = getTransactionalAnnotation(ctx);
-    boolean isInitiator = start(transactional);
+    TransactionDescriptor transaction = TransactionDescriptor.of(ctx, getClass(), this.annotationResolver);
+    Propagation propagation = transaction.getPropagation();
+    TransactionContext running = TransactionContext.current();
+    if (running != null) {
+      // nested call, the running transaction belongs to an outer interceptor
+      return switch (propagation) {
+        case REQUIRES_NEW -> suspendAndProceed(ctx, transaction, true);
+        case NOT_SUPPORTED -> suspendAndProceed(ctx, transaction, false);
+        case NEVER -> throw existingTransaction(ctx);
+        case NESTED -> {
+          join(running, transaction);
+          yield proceedNested(ctx, transaction, running);
+        }
+        default -> {
+          join(running, transaction);
+          yield proceed(ctx);
+        }
+      };
+    }
     boolean isExternalJta = isTransactionActive();
-    if (isInitiator && !isExternalJta) {
-      beginJta();
+    if (isExternalJta) {
+      TransactionSynchronizationRegistry synchronizations = getSynchronizationRegistry();
+      SessionSynchronization joined = synchronizations != null ? SessionSynchronization.of(synchronizations) : null;
+      if (joined != null) {
+        return proceedInSynchronized(ctx, transaction, joined);
+      }
+    }
+    return switch (propagation) {
+      case REQUIRED, NESTED -> proceedInTransaction(ctx, transaction, isExternalJta);
+      case REQUIRES_NEW -> isExternalJta ? suspendAndProceed(ctx, transaction, true)
+          : proceedInTransaction(ctx, transaction, false);
+      case SUPPORTS -> isExternalJta ? proceedInTransaction(ctx, transaction, true) : proceed(ctx);
+      case NOT_SUPPORTED -> isExternalJta ? suspendAndProceed(ctx, transaction, false) : proceed(ctx);
+      case MANDATORY -> {
+        if (!isExternalJta) {
+          throw new MybatisCdiTransactionException(
+              "No transaction is running for the mandatory transactional method " + ctx.getMethod());
+        }
+        yield proceedInTransaction(ctx, transaction, true);
+      }
+      case NEVER -> {
+        if (isExternalJta) {
+          throw existingTransaction(ctx);
+        }
+        yield proceed(ctx);
+      }
+    };
+  }
+
+  private Object proceedInTransaction(InvocationContext ctx, TransactionDescriptor transaction,
+      boolean isExternalJta) throws Exception {
+    int attempt = 1;
+    while (true) {
+      TransactionContext context = start(transaction);
+      try {
+        return proceedInContext(ctx, transaction, isExternalJta, context);
+      } catch (Exception ex) {
+        // only a transaction that this call started and rolled back can run again
+        if (context == null || isExternalJta || attempt >= transaction.getRetryAttempts()
+            || !transaction.isRetryable(ex) || !sleep(transaction.getRetryDelay(attempt))) {
+          throw ex;
+        }
+      }
+      attempt++;
     }
-    boolean needsRollback = transactional.rollbackOnly();
+  }
+
+  private static boolean sleep(long millis) {
+    try {
+      Thread.sleep(millis);
+      return true;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+
+  private Object proceedInContext(InvocationContext ctx, TransactionDescriptor transaction, boolean isExternalJta,
+      TransactionContext context) throws Exception {
+    boolean isInitiator = context != null;
+    boolean beginsLazily = isInitiator && !isExternalJta && transaction.isLazy();
+    if (beginsLazily) {
+      context.beginBeforeFirstSession(this::beginJta);
+    } else if (isInitiator && !isExternalJta) {
+      try {
+        beginJta();
+      } catch (Exception e) {
+        close(context);
+        throw e;
+      }
+    }
+    boolean needsRollback = transaction.isRollbackOnly();
     Object result;
     try {
       result = ctx.proceed();
     } catch (Exception ex) {
       Exception unwrapped = unwrapException(ex);
-      needsRollback = needsRollback || needsRollback(transactional, unwrapped);
+      needsRollback = needsRollback || transaction.needsRollback(unwrapped);
       throw unwrapped;
     } finally {
       if (isInitiator) {
-        try {
-          if (needsRollback) {
-            rollback(transactional);
-          } else {
-            commit(transactional);
-          }
-        } finally {
-          close();
+        boolean begun = !beginsLazily || context.isBegun();
+        TransactionSynchronizationRegistry synchronizations = begun ? getSynchronizationRegistry() : null;
+        if (synchronizations != null && SessionSynchronization.register(synchronizations, transaction)) {
+          // the sessions are committed and closed by the JTA transaction
           endJta(isExternalJta, needsRollback);
+        } else {
+          try {
+            if (needsRollback) {
+              rollback(transaction, context);
+            } else if (!transaction.isReadOnly()) {
+              commit(transaction, context);
+            }
+          } finally {
+            close(context);
+            if (begun) {
+              endJta(isExternalJta, needsRollback);
+            }
+          }
         }
       }
     }
     return result;
   }
 
+  /**
+   * Runs the method in the transaction of an earlier transactional method of the running JTA transaction, whose
+   * sessions are completed by the JTA transaction.
+   */
+  private Object proceedInSynchronized(InvocationContext ctx, TransactionDescriptor transaction,
+      SessionSynchronization joined) throws Exception {
+    joined.resume();
+    boolean needsRollback = transaction.isRollbackOnly();
+    try {
+      // the transaction is bound again, so this is handled as a nested call
+      return invoke(ctx);
+    } catch (Exception ex) {
+      needsRollback = needsRollback || transaction.needsRollback(ex);
+      throw ex;
+    } finally {
+      joined.suspend();
+      if (needsRollback) {
+        endJta(true, true);
+      }
+    }
+  }
+
+  /**
+   * Joins the running transaction, widening its scope to the managers of the method and starting their sessions if the
+   * method is eager.
+   */
+  private void join(TransactionContext context, TransactionDescriptor transaction) {
+    Collection<SqlSessionManager> added = context.widen(transaction);
+    if (!transaction.isLazy()) {
+      for (SqlSessionManager manager : added) {
+        context.start(context.route(manager));
+      }
+    }
+  }
+
+  /**
+   * Runs the method in a nested transaction of the running one, which only rolls back to the savepoints set before the
+   * call when it fails.
+   */
+  private Object proceedNested(InvocationContext ctx, TransactionDescriptor transaction, TransactionContext context)
+      throws Exception {
+    context.setSavepoints();
+    boolean needsRollback = transaction.isRollbackOnly();
+    try {
+      return ctx.proceed();
+    } catch (Exception ex) {
+      Exception unwrapped = unwrapException(ex);
+      needsRollback = needsRollback || transaction.needsRollback(unwrapped);
+      throw unwrapped;
+    } finally {
+      context.releaseSavepoints(needsRollback);
+    }
+  }
+
+  /**
+   * Suspends the running transaction, runs the method in a new transaction or without transaction, and resumes the
+   * suspended one.
+   */
+  private Object suspendAndProceed(InvocationContext ctx, TransactionDescriptor transaction, boolean newTransaction)
+      throws Exception {
+    TransactionContext.Suspended suspended = TransactionContext.suspend();
+    Transaction suspendedJta;
+    try {
+      suspendedJta = suspendJta();
+    } catch (Exception e) {
+      if (suspended != null) {
+        suspended.resume();
+      }
+      throw e;
+    }
+    try {
+      return newTransaction ? proceedInTransaction(ctx, transaction, false) : proceed(ctx);
+    } finally {
+      try {
+        resumeJta(suspendedJta);
+      } finally {
+        if (suspended != null) {
+          suspended.resume();
+        }
+      }
+    }
+  }
+
+  private Object proceed(InvocationContext ctx) throws Exception {
+    try {
+      return ctx.proceed();
+    } catch (Exception ex) {
+      throw unwrapException(ex);
+    }
+  }
+
+  private MybatisCdiTransactionException existingTransaction(InvocationContext ctx) {
+    return new MybatisCdiTransactionException(
+        "A transaction is running but transactional method " + ctx.getMethod() + " must never run in a transaction");
+  }
+
   /**
    * Checks if is transaction active.
    *
@@ -115,6 +328,33 @@ public class LocalTransactionInterceptor implements Serializable {
     // nothing to do
   }
 
+  /**
+   * Suspends the running JTA transaction.
+   *
+   * @return the suspended transaction, null if there is none
+   *
+   * @throws SystemException
+   *           used by jtaTransactionInterceptor
+   */
+  protected Transaction suspendJta() throws SystemException {
+    return null;
+  }
+
+  /**
+   * Resumes a JTA transaction suspended by {@link #suspendJta()}.
+   *
+   * @param transaction
+   *          the suspended transaction, may be null
+   *
+   * @throws InvalidTransactionException
+   *           used by jtaTransactionInterceptor
+   * @throws SystemException
+   *           used by jtaTransactionInterceptor
+   */
+  protected void resumeJta(Transaction transaction) throws InvalidTransactionException, SystemException {
+    // nothing to do
+  }
+
   /**
    * End jta.
    *
@@ -137,18 +377,26 @@ public class LocalTransactionInterceptor implements Serializable {
     // nothing to do
   }
 
-  private boolean needsRollback(Transactional transactional, Throwable throwable) {
-    if (RuntimeException.class.isAssignableFrom(throwable.getClass())) {
-      return true;
-    }
-    for (Class<? extends Throwable> exceptionClass : transactional.rollbackFor()) {
-      if (exceptionClass.isAssignableFrom(throwable.getClass())) {
-        return true;
-      }
-    }
-    return false;
+  /**
+   * Gets the registry used to complete the sessions with the JTA transaction instead of when the intercepted method
+   * returns.
+   *
+   * @return the registry, null to complete the sessions when the method returns
+   */
+  protected TransactionSynchronizationRegistry getSynchronizationRegistry() {
+    return null;
   }
 
+  /**
+   * Gets the transactional annotation of the intercepted method, or of its declaring class. Only called on the first
+   * invocation of each method, the result is cached in a {@link TransactionDescriptor} kept apart for each interceptor
+   * class, so subclasses may override it.
+   *
+   * @param ctx
+   *          the ctx
+   *
+   * @return the transactional annotation
+   */
   protected Transactional getTransactionalAnnotation(InvocationContext ctx) {
     Transactional t = ctx.getMethod().getAnnotation(Transactional.class);
     if (t == null) {
@@ -157,34 +405,66 @@ public class LocalTransactionInterceptor implements Serializable {
     return t;
   }
 
-  private boolean start(Transactional transactional) {
-    boolean started = false;
-    for (SqlSessionManager manager : this.registry.getManagers()) {
-      if (!manager.isManagedSessionStarted()) {
-        manager.startManagedSession(transactional.executorType(),
-            transactional.isolation().getTransactionIsolationLevel());
-        started = true;
+  /**
+   * Binds a new transaction to the thread. Eager transactions start the managed session of every manager in their
+   * scope, lazy ones start them when mappers are first used.
+   *
+   * @return the new context or null if this call does not initiate the transaction
+   */
+  private TransactionContext start(TransactionDescriptor transaction) {
+    Collection<SqlSessionManager> managers = transaction.getManagers(this.registry);
+    TransactionContext context = TransactionContext.begin(transaction, transaction.isScoped() ? managers : null,
+        this.registry);
+    if (!transaction.isLazy()) {
+      boolean started = false;
+      try {
+        for (SqlSessionManager manager : managers) {
+          started |= context.start(context.route(manager));
+        }
+      } catch (RuntimeException e) {
+        close(context);
+        throw e;
+      }
+      if (!started && !managers.isEmpty()) {
+        // every session was started outside of this interceptor, leave them alone. Without any manager yet (lazy
+        // registry) the sessions are enlisted when first used
+        context.end();
+        return null;
       }
     }
-    return started;
+    return context;
   }
 
-  private void commit(Transactional transactional) {
-    for (SqlSessionManager manager : this.registry.getManagers()) {
-      manager.commit(transactional.force());
+  private void commit(TransactionDescriptor transaction, TransactionContext context) {
+    if (context.hasBatchListener()) {
+      // hand the last batch to the listener, the commit would flush it silently
+      context.flushBatch();
+    }
+    if (isParallel(transaction, context)) {
+      ParallelCompletion.complete(context.getParticipants(), session -> session.commit(transaction.isForce()));
+      return;
+    }
+    for (SqlSessionManager manager : context.getParticipants()) {
+      manager.commit(transaction.isForce());
     }
   }
 
-  private void rollback(Transactional transactional) {
-    for (SqlSessionManager manager : this.registry.getManagers()) {
-      manager.rollback(transactional.force());
+  private void rollback(TransactionDescriptor transaction, TransactionContext context) {
+    if (isParallel(transaction, context)) {
+      ParallelCompletion.complete(context.getParticipants(), session -> session.rollback(transaction.isForce()));
+      return;
+    }
+    for (SqlSessionManager manager : context.getParticipants()) {
+      manager.rollback(transaction.isForce());
     }
   }
 
-  private void close() {
-    for (SqlSessionManager manager : this.registry.getManagers()) {
-      manager.close();
-    }
+  private boolean isParallel(TransactionDescriptor transaction, TransactionContext context) {
+    return transaction.isParallelCommit() && context.getParticipants().size() > 1;
+  }
+
+  private void close(TransactionContext context) {
+    context.close();
   }
 
   private Exception unwrapException(Exception wrapped) {
@@ -202,4 +482,10 @@ public class LocalTransactionInterceptor implements Serializable {
     }
   }
 
+  /**
+   * Serializable, like the interceptor holding it.
+   */
+  private interface AnnotationResolver extends Function<InvocationContext, Transactional>, Serializable {
+  }
+
 }
@@ -0,0 +1,54 @@
+/*
+ *    Copyright 2013-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.cdi;
+
+import jakarta.enterprise.context.spi.CreationalContext;
+import jakarta.enterprise.inject.Instance;
+import jakarta.enterprise.inject.literal.NamedLiteral;
+import jakarta.enterprise.inject.spi.CDI;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.util.Set;
+
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionManager;
+
+/**
+ * Mapper bean metadata used by {@link MybatisBuildCompatibleExtension}. CDI Lite has no {@code BeanManager}, so the
+ * SqlSessionFactory and the registry are looked up through {@link Instance}.
+ */
+final class LookupMyBatisBean extends MyBatisBean {
+
+  private static final long serialVersionUID = 1L;
+
+  LookupMyBatisBean(String id, Class<Type> type, Set<Annotation> qualifiers, String sqlSessionFactoryName) {
+    super(id, type, qualifiers, sqlSessionFactoryName);
+  }
+
+  @Override
+  <T> SqlSessionManager findSqlSessionManager(CreationalContext<T> creationalContext) {
+    Instance<Object> lookup = CDI.current();
+    Instance<SqlSessionFactory> factory = this.sqlSessionFactoryName != null
+        ? lookup.select(SqlSessionFactory.class, NamedLiteral.of(this.sqlSessionFactoryName))
+        : lookup.select(SqlSessionFactory.class, this.qualifiers.toArray(new Annotation[0]));
+    if (!factory.isResolvable()) {
+      throw new MybatisCdiConfigurationException("There are no SqlSessionFactory producers properly configured.");
+    }
+    return lookup.select(SqlSessionManagerRegistry.class).get().getManager(factory.get());
+  }
+
+}
@@ -0,0 +1,105 @@
+/*
+ *    Copyright 2013-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.cdi;
+
+import java.lang.reflect.Field;
+
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionManager;
+
+/**
+ * Access to the thread bound session of a {@code SqlSessionManager}. MyBatis has no public API to detach a managed
+ * session from the current thread and attach it again later, which is needed to suspend transactions and to switch
+ * the executor of a running transaction, and to complete sessions on other threads.
+ */
+final class ManagedSessions {
+
+  private static final Field LOCAL_SQL_SESSION;
+
+  static {
+    try {
+      Field field = SqlSessionManager.class.getDeclaredField("localSqlSession");
+      if (!ThreadLocal.class.equals(field.getType())) {
+        throw new NoSuchFieldException("localSqlSession is a " + field.getType().getName() + ", not a ThreadLocal");
+      }
+      field.setAccessible(true);
+      LOCAL_SQL_SESSION = field;
+    } catch (NoSuchFieldException | RuntimeException e) {
+      throw new ExceptionInInitializerError(new MybatisCdiConfigurationException(
+          "Suspending transactions, switching executors and parallel commits need the ThreadLocal field"
+              + " SqlSessionManager.localSqlSession, which this version of MyBatis does not have",
+          e));
+    }
+  }
+
+  private ManagedSessions() {
+    // this class cannot be instantiated
+  }
+
+  /**
+   * Detaches the managed session of the manager from the current thread.
+   *
+   * @param manager
+   *          the manager
+   *
+   * @return the detached session, null if no managed session was started
+   */
+  static SqlSession detach(SqlSessionManager manager) {
+    ThreadLocal<SqlSession> local = localSqlSession(manager);
+    SqlSession session = local.get();
+    local.remove();
+    return session;
+  }
+
+  /**
+   * Gets the managed session of the manager on the current thread, so another thread can complete it.
+   *
+   * @param manager
+   *          the manager
+   *
+   * @return the session, null if no managed session was started
+   */
+  static SqlSession get(SqlSessionManager manager) {
+    return localSqlSession(manager).get();
+  }
+
+  /**
+   * Attaches a session to the current thread as the managed session of the manager.
+   *
+   * @param manager
+   *          the manager
+   * @param session
+   *          the session, null to leave the manager without managed session
+   */
+  static void attach(SqlSessionManager manager, SqlSession session) {
+    ThreadLocal<SqlSession> local = localSqlSession(manager);
+    if (session == null) {
+      local.remove();
+    } else {
+      local.set(session);
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private static ThreadLocal<SqlSession> localSqlSession(SqlSessionManager manager) {
+    try {
+      return (ThreadLocal<SqlSession>) LOCAL_SQL_SESSION.get(manager);
+    } catch (IllegalAccessException e) {
+      throw new MybatisCdiTransactionException("Cannot access the managed session of " + manager, e);
+    }
+  }
+
+}
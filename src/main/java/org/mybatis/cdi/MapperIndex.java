@@ -0,0 +1,226 @@
+/*
+ *    Copyright 2013-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.cdi;
+
+import jakarta.enterprise.inject.literal.NamedLiteral;
+import jakarta.inject.Named;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Serializable;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.lang.reflect.Type;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Mappers and injection points found at compile time by {@link org.mybatis.cdi.processor.MapperIndexProcessor}.
+ * <p>
+ * The index is a UTF-8 text file with one tab separated entry per line:
+ * <ul>
+ * <li>{@code mapper <type> [<scope>]}: a {@link Mapper} interface and its scope annotation, if any</li>
+ * <li>{@code target <class>}: a class whose injection points are all listed in the index</li>
+ * <li>{@code inject <type> [<qualifier>[=<name>]]*}: an injection point of a mapper or {@code SqlSession}</li>
+ * </ul>
+ * {@link MybatisExtension} registers the indexed beans up front and skips the injection points of the indexed classes.
+ */
+public final class MapperIndex {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(MapperIndex.class.getName());
+
+  /**
+   * Location of the index in each jar.
+   */
+  public static final String RESOURCE = "META-INF/mybatis-cdi/index";
+
+  /**
+   * Entry of a mapper interface.
+   */
+  public static final String MAPPER = "mapper";
+
+  /**
+   * Entry of a class whose injection points are indexed.
+   */
+  public static final String TARGET = "target";
+
+  /**
+   * Entry of an injection point.
+   */
+  public static final String INJECT = "inject";
+
+  /**
+   * Separator of the fields of an entry.
+   */
+  public static final String SEPARATOR = "\t";
+
+  private static final MapperIndex EMPTY = new MapperIndex();
+
+  private final Map<Type, Class<? extends Annotation>> mapperScopes = new HashMap<>();
+
+  private final Set<Type> mapperTypes = new HashSet<>();
+
+  private final Set<String> targets = new HashSet<>();
+
+  private final Map<Type, Set<Set<Annotation>>> injectionPoints = new HashMap<>();
+
+  private MapperIndex() {
+  }
+
+  /**
+   * Loads and merges the indexes visible from a class loader. An index that cannot be read is ignored as a whole, so
+   * the classes it lists are discovered at runtime as usual.
+   *
+   * @param classLoader
+   *          the class loader
+   *
+   * @return the index, empty when no jar is indexed
+   */
+  static MapperIndex load(ClassLoader classLoader) {
+    MapperIndex index = new MapperIndex();
+    try {
+      Enumeration<URL> resources = classLoader.getResources(RESOURCE);
+      while (resources.hasMoreElements()) {
+        URL resource = resources.nextElement();
+        MapperIndex part = new MapperIndex();
+        try {
+          part.read(resource, classLoader);
+        } catch (IOException | ReflectiveOperationException | IllegalArgumentException | LinkageError e) {
+          LOGGER.warn("MyBatis CDI Module - Ignored index {}: {}", resource, e.toString());
+          continue;
+        }
+        index.merge(part);
+      }
+    } catch (IOException e) {
+      LOGGER.warn("MyBatis CDI Module - Could not list the indexes: {}", e.toString());
+      return EMPTY;
+    }
+    return index;
+  }
+
+  @SuppressWarnings("unchecked")
+  private void read(URL resource, ClassLoader classLoader) throws IOException, ReflectiveOperationException {
+    try (BufferedReader reader = new BufferedReader(
+        new InputStreamReader(resource.openStream(), StandardCharsets.UTF_8))) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        if (line.isEmpty() || line.startsWith("#")) {
+          continue;
+        }
+        String[] fields = line.split(SEPARATOR);
+        switch (fields[0]) {
+          case MAPPER -> {
+            Class<?> type = Class.forName(fields[1], false, classLoader);
+            this.mapperTypes.add(type);
+            if (fields.length > 2) {
+              this.mapperScopes.put(type, (Class<? extends Annotation>) Class.forName(fields[2], false, classLoader));
+            }
+          }
+          case TARGET -> this.targets.add(fields[1]);
+          case INJECT -> {
+            Set<Annotation> qualifiers = new HashSet<>();
+            for (int i = 2; i < fields.length; i++) {
+              qualifiers.add(qualifier(fields[i], classLoader));
+            }
+            this.injectionPoints.computeIfAbsent(Class.forName(fields[1], false, classLoader), k -> new HashSet<>())
+                .add(qualifiers.isEmpty() ? Set.of() : qualifiers);
+          }
+          default -> throw new IllegalArgumentException("Unknown entry " + line);
+        }
+      }
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Annotation qualifier(String field, ClassLoader classLoader) throws ClassNotFoundException {
+    int separator = field.indexOf('=');
+    if (separator >= 0) {
+      if (!Named.class.getName().equals(field.substring(0, separator))) {
+        throw new IllegalArgumentException("Unsupported qualifier " + field);
+      }
+      return NamedLiteral.of(field.substring(separator + 1));
+    }
+    Class<? extends Annotation> type = (Class<? extends Annotation>) Class.forName(field, false, classLoader);
+    return (Annotation) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type },
+        new MarkerAnnotation(type));
+  }
+
+  private void merge(MapperIndex other) {
+    this.mapperTypes.addAll(other.mapperTypes);
+    this.mapperScopes.putAll(other.mapperScopes);
+    this.targets.addAll(other.targets);
+    other.injectionPoints.forEach(
+        (type, qualifiers) -> this.injectionPoints.computeIfAbsent(type, k -> new HashSet<>()).addAll(qualifiers));
+  }
+
+  Set<Type> getMapperTypes() {
+    return this.mapperTypes;
+  }
+
+  Map<Type, Class<? extends Annotation>> getMapperScopes() {
+    return this.mapperScopes;
+  }
+
+  boolean hasTargets() {
+    return !this.targets.isEmpty();
+  }
+
+  boolean isTarget(Class<?> beanClass) {
+    return this.targets.contains(beanClass.getName());
+  }
+
+  Map<Type, Set<Set<Annotation>>> getInjectionPoints() {
+    return this.injectionPoints;
+  }
+
+  /**
+   * Instance of a qualifier without members.
+   */
+  private static final class MarkerAnnotation implements InvocationHandler, Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Class<? extends Annotation> type;
+
+    MarkerAnnotation(Class<? extends Annotation> type) {
+      this.type = type;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) {
+      return switch (method.getName()) {
+        case "annotationType" -> this.type;
+        case "equals" -> this.type.isInstance(args[0]);
+        case "hashCode" -> 0;
+        case "toString" -> "@" + this.type.getName() + "()";
+        default -> throw new UnsupportedOperationException(method.getName());
+      };
+    }
+
+  }
+
+}
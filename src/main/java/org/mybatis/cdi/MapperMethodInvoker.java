@@ -0,0 +1,100 @@
+/*
+ *    Copyright 2013-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.cdi;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Invokes mapper methods through {@code MethodHandle}s that are resolved once per {@code Method} and cached per
+ * declaring class, so calls after warm-up skip reflective dispatch.
+ */
+final class MapperMethodInvoker {
+
+  private static final MethodType INVOKER_TYPE = MethodType.methodType(Object.class, Object.class, Object[].class);
+
+  private static final MethodHandle REFLECTIVE_INVOKER;
+
+  private static final ClassValue<Map<Method, MethodHandle>> HANDLES = new ClassValue<>() {
+    @Override
+    protected Map<Method, MethodHandle> computeValue(Class<?> type) {
+      return new ConcurrentHashMap<>();
+    }
+  };
+
+  static {
+    try {
+      REFLECTIVE_INVOKER = MethodHandles.lookup().findStatic(MapperMethodInvoker.class, "invokeReflectively",
+          MethodType.methodType(Object.class, Method.class, Object.class, Object[].class));
+    } catch (NoSuchMethodException | IllegalAccessException e) {
+      throw new ExceptionInInitializerError(e);
+    }
+  }
+
+  private MapperMethodInvoker() {
+    // this class cannot be instantiated
+  }
+
+  /**
+   * Invokes the method on the target. Exceptions thrown by the target are propagated as is.
+   *
+   * @param target
+   *          the target
+   * @param method
+   *          the method
+   * @param args
+   *          the arguments, may be null for methods without parameters
+   *
+   * @return the method result
+   *
+   * @throws Throwable
+   *           any exception thrown by the target method
+   */
+  static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+    return getHandle(method).invokeExact(target, args);
+  }
+
+  static MethodHandle getHandle(Method method) {
+    return HANDLES.get(method.getDeclaringClass()).computeIfAbsent(method, MapperMethodInvoker::resolve);
+  }
+
+  private static MethodHandle resolve(Method method) {
+    MethodHandle handle;
+    try {
+      handle = MethodHandles.lookup().unreflect(method);
+    } catch (IllegalAccessException e) {
+      // Mapper interface not accessible from here, keep using reflection for this one
+      return MethodHandles.insertArguments(REFLECTIVE_INVOKER, 0, method);
+    }
+    int parameterCount = method.getParameterCount();
+    return handle.asType(MethodType.genericMethodType(parameterCount + 1)).asSpreader(Object[].class, parameterCount)
+        .asType(INVOKER_TYPE);
+  }
+
+  private static Object invokeReflectively(Method method, Object target, Object[] args) throws Throwable {
+    try {
+      return method.invoke(target, args);
+    } catch (InvocationTargetException e) {
+      throw e.getTargetException();
+    }
+  }
+
+}
@@ -49,6 +49,8 @@ public class MyBatisBean implements Bean<Object>, Serializable, PassivationCapab
 
   protected final String id;
 
+  protected final Class<? extends Annotation> scope;
+
   /**
    * Instantiates a new my batis bean.
    *
@@ -62,9 +64,29 @@ public class MyBatisBean implements Bean<Object>, Serializable, PassivationCapab
    *          the sql session factory name
    */
   public MyBatisBean(String id, Class<Type> type, Set<Annotation> qualifiers, String sqlSessionFactoryName) {
+    this(id, type, qualifiers, sqlSessionFactoryName, Dependent.class);
+  }
+
+  /**
+   * Instantiates a new my batis bean.
+   *
+   * @param id
+   *          the id
+   * @param type
+   *          the type
+   * @param qualifiers
+   *          the qualifiers
+   * @param sqlSessionFactoryName
+   *          the sql session factory name
+   * @param scope
+   *          the scope, a normal scope shares one instance between all the injection points
+   */
+  public MyBatisBean(String id, Class<Type> type, Set<Annotation> qualifiers, String sqlSessionFactoryName,
+      Class<? extends Annotation> scope) {
     this.id = id;
     this.type = type;
     this.sqlSessionFactoryName = sqlSessionFactoryName;
+    this.scope = scope;
     if (qualifiers == null || qualifiers.isEmpty()) {
       this.qualifiers = new HashSet<>();
       this.qualifiers.add(new CDIUtils.SerializableDefaultAnnotationLiteral());
@@ -87,8 +109,8 @@ public class MyBatisBean implements Bean<Object>, Serializable, PassivationCapab
   }
 
   @Override
-  public Class<Dependent> getScope() {
-    return Dependent.class;
+  public Class<? extends Annotation> getScope() {
+    return this.scope;
   }
 
   @Override
@@ -122,6 +144,10 @@ public class MyBatisBean implements Bean<Object>, Serializable, PassivationCapab
       return findSqlSessionManager(creationalContext);
     }
     ErrorContext.instance().reset();
+    Object generated = GeneratedMapperProxy.newInstance(this, creationalContext);
+    if (generated != null) {
+      return generated;
+    }
     return Proxy.newProxyInstance(SqlSessionFactory.class.getClassLoader(), new Class[] { this.type },
         new SerializableMapperProxy<>(this, creationalContext));
   }
@@ -131,12 +157,24 @@ public class MyBatisBean implements Bean<Object>, Serializable, PassivationCapab
     creationalContext.release();
   }
 
-  private <T> SqlSessionManager findSqlSessionManager(CreationalContext<T> creationalContext) {
+  <T> SqlSessionManager findSqlSessionManager(CreationalContext<T> creationalContext) {
     SqlSessionFactory factory = CDIUtils.findSqlSessionFactory(this.sqlSessionFactoryName, this.qualifiers,
         creationalContext);
     return CDIUtils.getRegistry(creationalContext).getManager(factory);
   }
 
+  /**
+   * Gets the object mapper calls are forwarded to.
+   *
+   * @param manager
+   *          the manager
+   *
+   * @return the mapper bound to the manager
+   */
+  Object getMapper(SqlSessionManager manager) {
+    return manager.getMapper(this.type);
+  }
+
   @Override
   public String getId() {
     return this.id;
@@ -0,0 +1,248 @@
+/*
+ *    Copyright 2013-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.cdi;
+
+import jakarta.enterprise.context.Dependent;
+import jakarta.enterprise.context.NormalScope;
+import jakarta.enterprise.inject.Any;
+import jakarta.enterprise.inject.Default;
+import jakarta.enterprise.inject.Instance;
+import jakarta.enterprise.inject.build.compatible.spi.BeanInfo;
+import jakarta.enterprise.inject.build.compatible.spi.BuildCompatibleExtension;
+import jakarta.enterprise.inject.build.compatible.spi.Enhancement;
+import jakarta.enterprise.inject.build.compatible.spi.InjectionPointInfo;
+import jakarta.enterprise.inject.build.compatible.spi.Messages;
+import jakarta.enterprise.inject.build.compatible.spi.Parameters;
+import jakarta.enterprise.inject.build.compatible.spi.Registration;
+import jakarta.enterprise.inject.build.compatible.spi.SkipIfPortableExtensionPresent;
+import jakarta.enterprise.inject.build.compatible.spi.Synthesis;
+import jakarta.enterprise.inject.build.compatible.spi.SyntheticBeanBuilder;
+import jakarta.enterprise.inject.build.compatible.spi.SyntheticBeanCreator;
+import jakarta.enterprise.inject.build.compatible.spi.SyntheticComponents;
+import jakarta.enterprise.lang.model.AnnotationInfo;
+import jakarta.enterprise.lang.model.declarations.ClassInfo;
+import jakarta.enterprise.lang.model.declarations.MethodInfo;
+import jakarta.enterprise.lang.model.types.Type;
+import jakarta.inject.Named;
+import jakarta.inject.Scope;
+
+import java.lang.annotation.Annotation;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * MyBatis CDI extension for CDI Lite containers, which run the discovery at build time. It registers the same mapper
+ * and SqlSession beans as {@link MybatisExtension} and is skipped when the portable extension runs.
+ */
+@SkipIfPortableExtensionPresent(MybatisExtension.class)
+public class MybatisBuildCompatibleExtension implements BuildCompatibleExtension {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(MybatisBuildCompatibleExtension.class.getName());
+
+  static final String TYPE_PARAM = "type";
+
+  static final String ID_PARAM = "id";
+
+  static final String NAME_PARAM = "name";
+
+  static final String QUALIFIERS_PARAM = "qualifiers";
+
+  private final Set<String> mapperTypes = new HashSet<>();
+
+  private final Map<String, String> mapperScopes = new HashMap<>();
+
+  private final Map<String, BeanKey> mappers = new TreeMap<>();
+
+  private final Map<String, BeanKey> sessions = new TreeMap<>();
+
+  /**
+   * Collect the mapper interfaces and their scope.
+   *
+   * @param type
+   *          the type
+   */
+  @Enhancement(types = Object.class, withSubtypes = true, withAnnotations = Mapper.class)
+  public void collectMapper(ClassInfo type) {
+    if (!type.isInterface() || !type.hasAnnotation(Mapper.class)) {
+      return;
+    }
+    LOGGER.info("MyBatis CDI Module - Found class with @Mapper-annotation: {}", type.simpleName());
+    this.mapperTypes.add(type.name());
+    for (AnnotationInfo annotation : type.annotations()) {
+      ClassInfo declaration = annotation.declaration();
+      if (declaration.hasAnnotation(NormalScope.class) || declaration.hasAnnotation(Scope.class)) {
+        this.mapperScopes.put(type.name(), declaration.name());
+      }
+    }
+  }
+
+  /**
+   * Collect the SqlSessionFactory producers and the injection points that need a mapper or a SqlSession.
+   *
+   * @param bean
+   *          the bean
+   * @param messages
+   *          the messages
+   */
+  @Registration(types = Object.class)
+  public void collectInjectionPoints(BeanInfo bean, Messages messages) {
+    if (bean.isProducerMethod() && bean.producerMethod().hasAnnotation(SessionFactoryProvider.class)) {
+      MethodInfo producer = bean.producerMethod();
+      String logData = producer.declaringClass().simpleName() + "." + producer.name();
+      if (isClass(producer.returnType(), SqlSessionFactory.class.getName())) {
+        LOGGER.info("MyBatis CDI Module - SqlSessionFactory producer {}", logData);
+        BeanKey key = new BeanKey(SqlSession.class.getName(), bean.qualifiers());
+        this.sessions.put(key.id, key);
+      } else {
+        messages.error("SessionFactoryProvider producers must return SqlSessionFactory (%s)".formatted(logData),
+            bean);
+      }
+    }
+    for (InjectionPointInfo ip : bean.injectionPoints()) {
+      if (ip.type().isClass()) {
+        String typeName = ip.type().asClass().declaration().name();
+        if (this.mapperTypes.contains(typeName)) {
+          BeanKey key = new BeanKey(typeName, ip.qualifiers());
+          this.mappers.putIfAbsent(key.id, key);
+        }
+      }
+    }
+  }
+
+  /**
+   * Register all mybatis injectable beans.
+   *
+   * @param components
+   *          the components
+   */
+  @Synthesis
+  public void registerBeans(SyntheticComponents components) {
+    LOGGER.info("MyBatis CDI Module - Activated");
+    for (BeanKey key : this.mappers.values()) {
+      LOGGER.info("MyBatis CDI Module - Managed Mapper dependency: {}, {}", key.id, key.type);
+      String scope = this.mapperScopes.get(key.type);
+      register(components, key, scope != null ? loadClass(scope) : Dependent.class);
+    }
+    for (BeanKey key : this.sessions.values()) {
+      LOGGER.info("MyBatis CDI Module - Managed SqlSession: {}, {}", key.id, key.type);
+      register(components, key, Dependent.class);
+    }
+    this.mapperTypes.clear();
+    this.mapperScopes.clear();
+    this.mappers.clear();
+    this.sessions.clear();
+  }
+
+  @SuppressWarnings("unchecked")
+  private static void register(SyntheticComponents components, BeanKey key, Class<?> scope) {
+    Class<Object> type = (Class<Object>) loadClass(key.type);
+    SyntheticBeanBuilder<Object> builder = components.addBean(type).type(type)
+        .scope((Class<? extends Annotation>) scope).withParam(TYPE_PARAM, type).withParam(ID_PARAM, key.id)
+        .withParam(QUALIFIERS_PARAM, key.qualifiers.toArray(new AnnotationInfo[0]));
+    for (AnnotationInfo qualifier : key.qualifiers) {
+      builder.qualifier(qualifier);
+    }
+    if (key.name != null) {
+      builder.withParam(NAME_PARAM, key.name);
+    }
+    builder.createWith(MapperCreator.class);
+  }
+
+  private static boolean isClass(Type type, String className) {
+    return type.isClass() && type.asClass().declaration().name().equals(className);
+  }
+
+  private static Class<?> loadClass(String name) {
+    ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+    try {
+      return Class.forName(name, false,
+          classLoader != null ? classLoader : MybatisBuildCompatibleExtension.class.getClassLoader());
+    } catch (ClassNotFoundException e) {
+      throw new MybatisCdiConfigurationException("Cannot load " + name);
+    }
+  }
+
+  /**
+   * Creates the mapper and SqlSession beans registered by {@link MybatisBuildCompatibleExtension}.
+   */
+  public static class MapperCreator implements SyntheticBeanCreator<Object> {
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public Object create(Instance<Object> lookup, Parameters params) {
+      Class<java.lang.reflect.Type> type = params.get(TYPE_PARAM, Class.class);
+      Set<Annotation> qualifiers = new HashSet<>(List.of(params.get(QUALIFIERS_PARAM, Annotation[].class)));
+      return new LookupMyBatisBean(params.get(ID_PARAM, String.class), type, qualifiers,
+          params.get(NAME_PARAM, String.class)).create(null);
+    }
+
+  }
+
+  /**
+   * Unique key for fully qualified Mappers and Sessions, built like the one of {@link MybatisExtension}.
+   */
+  private static final class BeanKey {
+
+    private final String id;
+
+    private final String type;
+
+    private final String name;
+
+    private final List<AnnotationInfo> qualifiers;
+
+    BeanKey(String type, Collection<AnnotationInfo> annotations) {
+      this.type = type;
+      this.qualifiers = new ArrayList<>();
+      for (AnnotationInfo annotation : annotations) {
+        if (!annotation.name().equals(Default.class.getName()) && !annotation.name().equals(Any.class.getName())) {
+          this.qualifiers.add(annotation);
+        }
+      }
+      this.qualifiers.sort(Comparator.comparing(AnnotationInfo::name));
+
+      // Create key = type(.qualifier)*(.name)?
+      final StringBuilder sb = new StringBuilder(type);
+      String n = null;
+      for (AnnotationInfo q : this.qualifiers) {
+        if (q.name().equals(Named.class.getName())) {
+          n = q.value().asString();
+        } else {
+          sb.append(".").append(q.declaration().simpleName());
+        }
+      }
+      if (n != null) {
+        sb.append("_").append(n);
+      }
+      this.id = sb.toString();
+      this.name = n;
+    }
+
+  }
+
+}
@@ -0,0 +1,33 @@
+/*
+ *    Copyright 2013-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.cdi;
+
+/**
+ * Thrown when a {@link Transactional} method cannot run with the requested transaction settings.
+ */
+public class MybatisCdiTransactionException extends RuntimeException {
+
+  private static final long serialVersionUID = 1L;
+
+  public MybatisCdiTransactionException(String message) {
+    super(message);
+  }
+
+  public MybatisCdiTransactionException(String message, Throwable cause) {
+    super(message, cause);
+  }
+
+}
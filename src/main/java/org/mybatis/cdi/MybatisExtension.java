@@ -15,10 +15,14 @@
  */
 package org.mybatis.cdi;
 
+import jakarta.enterprise.context.Dependent;
+import jakarta.enterprise.context.NormalScope;
 import jakarta.enterprise.event.Observes;
 import jakarta.enterprise.inject.spi.AfterBeanDiscovery;
 import jakarta.enterprise.inject.spi.AnnotatedMember;
 import jakarta.enterprise.inject.spi.AnnotatedType;
+import jakarta.enterprise.inject.spi.BeanManager;
+import jakarta.enterprise.inject.spi.BeforeShutdown;
 import jakarta.enterprise.inject.spi.Extension;
 import jakarta.enterprise.inject.spi.InjectionPoint;
 import jakarta.enterprise.inject.spi.InjectionTarget;
@@ -28,13 +32,16 @@ import jakarta.enterprise.inject.spi.ProcessProducer;
 import jakarta.enterprise.inject.spi.WithAnnotations;
 import jakarta.inject.Named;
 import jakarta.inject.Qualifier;
+import jakarta.inject.Scope;
 
 import java.lang.annotation.Annotation;
 import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -55,10 +62,43 @@ public class MybatisExtension implements Extension {
 
   private final Set<Type> mapperTypes = new HashSet<>();
 
-  private final Set<InjectionPoint> injectionPoints = new HashSet<>();
+  private final Map<Type, Class<? extends Annotation>> mapperScopes = new HashMap<>();
 
   /**
-   * Collect types of all mappers annotated with Mapper.
+   * Qualifier sets of the mapper and SqlSession injection points, by type. Other injection points are dropped as soon
+   * as they are seen.
+   */
+  private final Map<Type, Set<Set<Annotation>>> injectionPoints = new HashMap<>();
+
+  /**
+   * Beans found at compile time. Its mappers and injection points are registered up front.
+   */
+  private final MapperIndex index;
+
+  /**
+   * Instantiates a new mybatis extension, reading the indexes visible from the thread context class loader.
+   */
+  public MybatisExtension() {
+    this(MapperIndex.load(classLoader()));
+  }
+
+  MybatisExtension(MapperIndex index) {
+    this.index = index;
+    this.mapperTypes.addAll(index.getMapperTypes());
+    this.mapperScopes.putAll(index.getMapperScopes());
+    index.getInjectionPoints().forEach(
+        (type, qualifiers) -> this.injectionPoints.computeIfAbsent(type, k -> new HashSet<>()).addAll(qualifiers));
+  }
+
+  private static ClassLoader classLoader() {
+    ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+    return classLoader != null ? classLoader : MybatisExtension.class.getClassLoader();
+  }
+
+  /**
+   * Collect types of all mappers annotated with Mapper. A scope annotation on the mapper interface (e.g.
+   * {@code @ApplicationScoped}) is used as the scope of its beans, so one proxy is shared instead of creating one per
+   * injection point.
    *
    * @param <T>
    *          the generic type
@@ -68,12 +108,27 @@ public class MybatisExtension implements Extension {
   protected <T> void processAnnotatedType(
       @Observes @WithAnnotations({ Mapper.class }) final ProcessAnnotatedType<T> pat) {
     final AnnotatedType<T> at = pat.getAnnotatedType();
+    if (this.mapperTypes.contains(at.getBaseType())) {
+      // Already indexed
+      return;
+    }
     if (at.isAnnotationPresent(Mapper.class)) {
       LOGGER.info("MyBatis CDI Module - Found class with @Mapper-annotation: {}", at.getJavaClass().getSimpleName());
       this.mapperTypes.add(at.getBaseType());
+      for (Annotation annotation : at.getAnnotations()) {
+        if (isScope(annotation.annotationType())) {
+          LOGGER.info("MyBatis CDI Module - Mapper {} uses scope {}", at.getJavaClass().getSimpleName(),
+              annotation.annotationType().getSimpleName());
+          this.mapperScopes.put(at.getBaseType(), annotation.annotationType());
+        }
+      }
     }
   }
 
+  private static boolean isScope(Class<? extends Annotation> annotationType) {
+    return annotationType.isAnnotationPresent(NormalScope.class) || annotationType.isAnnotationPresent(Scope.class);
+  }
+
   /**
    * Collect all SqlSessionFactory producers annotated with SessionFactoryProvider.
    *
@@ -108,7 +163,9 @@ public class MybatisExtension implements Extension {
   }
 
   /**
-   * Collect all targets to match Mappers and Session providers dependency.
+   * Collect all targets to match Mappers and Session providers dependency. The classes listed in the index are
+   * skipped. Every {@code ProcessAnnotatedType} event fires before the first {@code ProcessInjectionTarget}, so all the
+   * mapper types are known here.
    *
    * @param <X>
    *          the generic type
@@ -116,8 +173,31 @@ public class MybatisExtension implements Extension {
    *          the event
    */
   protected <X> void processInjectionTarget(@Observes ProcessInjectionTarget<X> event) {
+    if (this.index.hasTargets() && this.index.isTarget(event.getAnnotatedType().getJavaClass())) {
+      // Its injection points are indexed
+      return;
+    }
     final InjectionTarget<X> it = event.getInjectionTarget();
-    this.injectionPoints.addAll(it.getInjectionPoints());
+    for (InjectionPoint ip : it.getInjectionPoints()) {
+      final Type type = ip.getAnnotated().getBaseType();
+      if (this.mapperTypes.contains(type) || SqlSession.class.equals(type)) {
+        this.injectionPoints.computeIfAbsent(type, k -> new HashSet<>())
+            .add(filterQualifiers(ip.getAnnotated().getAnnotations()));
+      }
+    }
+  }
+
+  private static Set<Annotation> filterQualifiers(Set<Annotation> annotations) {
+    Set<Annotation> qualifiers = null;
+    for (Annotation annotation : annotations) {
+      if (annotation.annotationType().isAnnotationPresent(Qualifier.class)) {
+        if (qualifiers == null) {
+          qualifiers = new HashSet<>();
+        }
+        qualifiers.add(annotation);
+      }
+    }
+    return qualifiers == null ? Set.of() : qualifiers;
   }
 
   /**
@@ -133,13 +213,18 @@ public class MybatisExtension implements Extension {
     Set<BeanKey> mappers = new HashSet<>();
     Set<BeanKey> sessionTargets = new HashSet<>();
 
-    for (InjectionPoint ip : injectionPoints) {
-      if (this.mapperTypes.contains(ip.getAnnotated().getBaseType())) {
-        LOGGER.info("MyBatis CDI Module - Found a bean, which needs a Mapper {}", ip.getAnnotated().getBaseType());
-        mappers.add(new BeanKey((Class<Type>) ip.getAnnotated().getBaseType(), ip.getAnnotated().getAnnotations()));
-      } else if (SqlSession.class.equals(ip.getAnnotated().getBaseType())) {
-        sessionTargets
-            .add(new BeanKey((Class<Type>) ip.getAnnotated().getBaseType(), ip.getAnnotated().getAnnotations()));
+    for (Map.Entry<Type, Set<Set<Annotation>>> entry : this.injectionPoints.entrySet()) {
+      final Type type = entry.getKey();
+      final boolean isMapper = this.mapperTypes.contains(type);
+      if (isMapper || SqlSession.class.equals(type)) {
+        for (Set<Annotation> qualifiers : entry.getValue()) {
+          if (isMapper) {
+            LOGGER.info("MyBatis CDI Module - Found a bean, which needs a Mapper {}", type);
+            mappers.add(new BeanKey((Class<Type>) type, qualifiers));
+          } else {
+            sessionTargets.add(new BeanKey((Class<Type>) type, qualifiers));
+          }
+        }
       }
     }
     this.injectionPoints.clear();
@@ -147,9 +232,10 @@ public class MybatisExtension implements Extension {
     // Mappers -----------------------------------------------------------------
     for (BeanKey key : mappers) {
       LOGGER.info("MyBatis CDI Module - Managed Mapper dependency: {}, {}", key.getKey(), key.type.getName());
-      abd.addBean(key.createBean());
+      abd.addBean(key.createBean(this.mapperScopes.getOrDefault(key.type, Dependent.class)));
     }
     this.mapperTypes.clear();
+    this.mapperScopes.clear();
 
     // SqlSessionFactories -----------------------------------------------------
     for (BeanKey key : this.sessionProducers) {
@@ -166,6 +252,20 @@ public class MybatisExtension implements Extension {
 
   }
 
+  /**
+   * Forget the beans resolved by {@link CDIUtils} during the life of the container and stop the threads completing
+   * parallel transactions.
+   *
+   * @param bs
+   *          the bs
+   * @param beanManager
+   *          the bean manager of the container shutting down
+   */
+  protected void beforeShutdown(@Observes final BeforeShutdown bs, final BeanManager beanManager) {
+    CDIUtils.clearCache(beanManager);
+    ParallelCompletion.shutdown();
+  }
+
   /**
    * Unique key for fully qualified Mappers and Sessions.
    */
@@ -235,7 +335,11 @@ public class MybatisExtension implements Extension {
     }
 
     public MyBatisBean createBean() {
-      return new MyBatisBean(this.key, this.type, new HashSet<>(this.qualifiers), this.sqlSessionManagerName);
+      return createBean(Dependent.class);
+    }
+
+    public MyBatisBean createBean(Class<? extends Annotation> scope) {
+      return new MyBatisBean(this.key, this.type, new HashSet<>(this.qualifiers), this.sqlSessionManagerName, scope);
     }
 
     public String getKey() {
@@ -0,0 +1,149 @@
+/*
+ *    Copyright 2013-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.cdi;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionManager;
+
+/**
+ * Completes the managed sessions of a transaction concurrently. A managed session is bound to the thread that started
+ * it, so the sessions are taken from their managers on the calling thread and handed to pool threads, which commit or
+ * roll them back through the {@code SqlSession} itself. The calling thread completes the first session and waits for
+ * the others, so it can close them afterwards.
+ * <p>
+ * Commits and rollbacks wait on the databases, so the pool is sized by the
+ * {@value LocalTransactionInterceptor#PARALLEL_COMMIT_THREADS_PROPERTY} system property rather than the number of
+ * processors. It has no queue: a session no idle thread can take is completed on the calling thread, so it never
+ * waits behind other transactions. Idle threads stop after a minute. The pool is created on first use and shut down
+ * by {@link MybatisExtension} when the container shuts down.
+ */
+final class ParallelCompletion {
+
+  private static final AtomicInteger THREADS = new AtomicInteger();
+
+  private static final int DEFAULT_THREADS = 32;
+
+  private static ThreadPoolExecutor executor;
+
+  private ParallelCompletion() {
+    // this class cannot be instantiated
+  }
+
+  /**
+   * Completes the managed session of every manager and waits for all of them, even when some fail.
+   *
+   * @param managers
+   *          the managers, whose managed session is started on the current thread
+   * @param completion
+   *          commits or rolls back a session
+   *
+   * @throws RuntimeException
+   *           the failure of the first manager that failed, in the order of the list, with the later failures
+   *           suppressed
+   */
+  static void complete(List<SqlSessionManager> managers, Consumer<SqlSession> completion) {
+    List<SqlSession> sessions = new ArrayList<>(managers.size());
+    for (SqlSessionManager manager : managers) {
+      SqlSession session = ManagedSessions.get(manager);
+      if (session == null) {
+        throw new MybatisCdiTransactionException("No managed session is started on " + manager);
+      }
+      sessions.add(session);
+    }
+    ExecutorService pool = getExecutor();
+    List<Future<?>> futures = new ArrayList<>(sessions.size() - 1);
+    for (SqlSession session : sessions.subList(1, sessions.size())) {
+      futures.add(pool.submit(() -> completion.accept(session)));
+    }
+    RuntimeException failure = null;
+    try {
+      completion.accept(sessions.get(0));
+    } catch (RuntimeException e) {
+      failure = e;
+    }
+    boolean interrupted = false;
+    for (Future<?> future : futures) {
+      while (true) {
+        try {
+          future.get();
+          break;
+        } catch (InterruptedException e) {
+          // the session must not be closed while another thread completes it
+          interrupted = true;
+        } catch (ExecutionException e) {
+          failure = addFailure(failure, e.getCause());
+          break;
+        }
+      }
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+    if (failure != null) {
+      throw failure;
+    }
+  }
+
+  /**
+   * Shuts the pool down. Completions already submitted still run; the next transaction completed in parallel creates a
+   * new pool.
+   */
+  static synchronized void shutdown() {
+    if (executor != null) {
+      executor.shutdown();
+      executor = null;
+    }
+  }
+
+  private static synchronized ExecutorService getExecutor() {
+    if (executor == null) {
+      int threads = Math.max(1,
+          Integer.getInteger(LocalTransactionInterceptor.PARALLEL_COMMIT_THREADS_PROPERTY, DEFAULT_THREADS));
+      executor = new ThreadPoolExecutor(0, threads, 60L, TimeUnit.SECONDS, new SynchronousQueue<>(), runnable -> {
+        Thread thread = new Thread(runnable, "mybatis-cdi-commit-" + THREADS.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+      }, (task, pool) -> {
+        // no idle thread, or the pool was shut down meanwhile: complete the session on the calling thread
+        task.run();
+      });
+    }
+    return executor;
+  }
+
+  private static RuntimeException addFailure(RuntimeException failure, Throwable cause) {
+    if (failure != null) {
+      failure.addSuppressed(cause);
+      return failure;
+    }
+    if (cause instanceof RuntimeException runtimeException) {
+      return runtimeException;
+    }
+    return new MybatisCdiTransactionException("Could not complete the session", cause);
+  }
+
+}
@@ -0,0 +1,61 @@
+/*
+ *    Copyright 2013-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.cdi;
+
+/**
+ * Enum of transaction propagation behaviors, which define how a {@link Transactional} method behaves when it is called
+ * with or without a running transaction.
+ */
+public enum Propagation {
+
+  /**
+   * Joins the running transaction or starts a new one if there is none.
+   */
+  REQUIRED,
+
+  /**
+   * Suspends the running transaction, if any, and always starts a new one.
+   */
+  REQUIRES_NEW,
+
+  /**
+   * Joins the running transaction or runs without transaction if there is none.
+   */
+  SUPPORTS,
+
+  /**
+   * Suspends the running transaction, if any, and runs without transaction.
+   */
+  NOT_SUPPORTED,
+
+  /**
+   * Joins the running transaction or fails if there is none.
+   */
+  MANDATORY,
+
+  /**
+   * Runs without transaction or fails if there is a running one.
+   */
+  NEVER,
+
+  /**
+   * Runs in a nested transaction of the running transaction or starts a new one if there is none. The nested
+   * transaction sets a savepoint on the connection of each session, and a failure only rolls back to them, leaving the
+   * running transaction usable.
+   */
+  NESTED
+
+}
@@ -0,0 +1,55 @@
+/*
+ *    Copyright 2013-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.cdi;
+
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.ElementType.PARAMETER;
+import static java.lang.annotation.ElementType.TYPE;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+import jakarta.inject.Qualifier;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+/**
+ * Qualifies an SqlSessionFactory provider method as the read replica of another factory. Mappers of the primary factory
+ * are routed to the replica inside {@link Transactional#readOnly() read-only} transactions.
+ *
+ * <pre>
+ * &#64;ApplicationScoped
+ * &#64;Produces
+ * &#64;SessionFactoryProvider
+ * &#64;ReadReplica("manager1")
+ * public SqlSessionFactory createReplicaOfManager1() {
+ *   ...
+ * }
+ * </pre>
+ */
+@Qualifier
+@Retention(RUNTIME)
+@Target({ METHOD, FIELD, TYPE, PARAMETER })
+public @interface ReadReplica {
+
+  /**
+   * The {@code @Named} name of the primary factory.
+   *
+   * @return the name of the primary factory
+   */
+  String value();
+
+}
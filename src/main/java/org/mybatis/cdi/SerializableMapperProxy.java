@@ -22,17 +22,20 @@ import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.lang.reflect.InvocationHandler;
-import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 
-import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionManager;
 
 public class SerializableMapperProxy<T> implements InvocationHandler, Serializable {
 
   private static final long serialVersionUID = 1L;
 
+  private transient SqlSessionManager manager;
+
   private transient Object mapper;
 
+  private transient volatile RoutedMapper routed;
+
   private final MyBatisBean bean;
 
   private final CreationalContext<T> creationalContext;
@@ -48,31 +51,46 @@ public class SerializableMapperProxy<T> implements InvocationHandler, Serializab
   public SerializableMapperProxy(MyBatisBean bean, CreationalContext<T> creationalContext) {
     this.bean = bean;
     this.creationalContext = creationalContext;
-    this.mapper = getMapper();
+    init();
   }
 
   @Override
   public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
-    try {
-      return method.invoke(this.mapper, args);
-    } catch (InvocationTargetException e) {
-      throw e.getTargetException();
+    if (method.getDeclaringClass() == Object.class) {
+      // toString and the like must not start a session
+      return MapperMethodInvoker.invoke(this.mapper, method, args);
+    }
+    SqlSessionManager target = TransactionContext.enlist(this.manager);
+    return MapperMethodInvoker.invoke(target == this.manager ? this.mapper : getRoutedMapper(target), method, args);
+  }
+
+  private Object getRoutedMapper(SqlSessionManager target) {
+    RoutedMapper r = this.routed;
+    if (r == null || r.manager() != target) {
+      r = new RoutedMapper(target, this.bean.getMapper(target));
+      this.routed = r;
     }
+    return r.mapper();
   }
 
-  private Object getMapper() {
-    SqlSessionFactory factory = CDIUtils.findSqlSessionFactory(this.bean.sqlSessionFactoryName, this.bean.qualifiers,
-        this.creationalContext);
-    return CDIUtils.getRegistry(this.creationalContext).getManager(factory).getMapper(this.bean.type);
+  private void init() {
+    this.manager = this.bean.findSqlSessionManager(this.creationalContext);
+    this.mapper = this.bean.getMapper(this.manager);
   }
 
   private void readObject(ObjectInputStream is) throws ClassNotFoundException, IOException {
     is.defaultReadObject();
-    this.mapper = getMapper();
+    init();
   }
 
   private void writeObject(ObjectOutputStream os) throws IOException {
     os.defaultWriteObject();
   }
 
+  /**
+   * Mapper bound to the manager a read-only transaction routed the calls to.
+   */
+  private record RoutedMapper(SqlSessionManager manager, Object mapper) {
+  }
+
 }
@@ -0,0 +1,98 @@
+/*
+ *    Copyright 2013-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.cdi;
+
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+
+/**
+ * Completes the sessions of a transaction when its JTA transaction completes. Between two transactional methods the
+ * sessions are detached from the thread and kept in the {@code TransactionSynchronizationRegistry}, so the callbacks
+ * do not depend on the thread completing the JTA transaction.
+ */
+final class SessionSynchronization implements Synchronization {
+
+  private final TransactionDescriptor transaction;
+
+  private volatile TransactionContext.Suspended suspended;
+
+  private SessionSynchronization(TransactionDescriptor transaction) {
+    this.transaction = transaction;
+  }
+
+  /**
+   * Gets the synchronization of the running JTA transaction.
+   *
+   * @param registry
+   *          the registry
+   *
+   * @return the synchronization, null if no transactional method registered one yet
+   */
+  static SessionSynchronization of(TransactionSynchronizationRegistry registry) {
+    return (SessionSynchronization) registry.getResource(SessionSynchronization.class);
+  }
+
+  /**
+   * Detaches the transaction running on the current thread and registers it to complete with the JTA transaction.
+   *
+   * @param registry
+   *          the registry
+   * @param transaction
+   *          the settings of the transaction
+   *
+   * @return true, if registered. False if the JTA transaction does not accept synchronizations anymore, the
+   *         transaction is then left on the current thread.
+   */
+  static boolean register(TransactionSynchronizationRegistry registry, TransactionDescriptor transaction) {
+    SessionSynchronization synchronization = new SessionSynchronization(transaction);
+    synchronization.suspend();
+    try {
+      registry.registerInterposedSynchronization(synchronization);
+    } catch (IllegalStateException e) {
+      synchronization.resume();
+      return false;
+    }
+    registry.putResource(SessionSynchronization.class, synchronization);
+    return true;
+  }
+
+  /**
+   * Binds the transaction to the current thread again.
+   */
+  void resume() {
+    this.suspended.resume();
+  }
+
+  /**
+   * Detaches the transaction from the current thread.
+   */
+  void suspend() {
+    this.suspended = TransactionContext.suspend();
+  }
+
+  @Override
+  public void beforeCompletion() {
+    if (!this.transaction.isReadOnly()) {
+      this.suspended.commitSessions(this.transaction.isForce());
+    }
+  }
+
+  @Override
+  public void afterCompletion(int status) {
+    this.suspended.closeSessions();
+  }
+
+}
@@ -18,21 +18,106 @@ package org.mybatis.cdi;
 import jakarta.annotation.PostConstruct;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.enterprise.inject.Any;
+import jakarta.enterprise.inject.Default;
 import jakarta.enterprise.inject.Instance;
+import jakarta.enterprise.inject.spi.Bean;
 import jakarta.inject.Inject;
 
+import java.lang.annotation.Annotation;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.ibatis.session.SqlSessionFactory;
 import org.apache.ibatis.session.SqlSessionManager;
 
+/**
+ * Creates one {@link SqlSessionManager} per {@link SqlSessionFactory} producer.
+ * <p>
+ * The factories are built one after the other by default. The {@value #INIT_MODE_PROPERTY} system property selects
+ * another mode:
+ * <ul>
+ * <li>{@code parallel} builds them concurrently on a bounded pool of daemon threads, sized by the
+ * {@value #INIT_THREADS_PROPERTY} system property or the number of processors. The producers then run outside of the
+ * calling thread, so they must not rely on its request or session context.</li>
+ * <li>{@code lazy} builds each factory and its manager the first time it is used, by a mapper or a transaction
+ * selecting it. Until then {@link #getManagers()} does not include it.</li>
+ * </ul>
+ * <p>
+ * When the {@value #TIMEOUT_PLUGIN_PROPERTY} system property is {@code true}, the registry adds the
+ * {@link TransactionTimeoutInterceptor} plugin to the configuration of each factory that does not declare it yet.
+ */
 @ApplicationScoped
 public class SqlSessionManagerRegistry {
 
-  private Map<SqlSessionFactory, SqlSessionManager> managers;
+  /**
+   * System property selecting how the factories are initialized: {@code eager} (default), {@code parallel} or
+   * {@code lazy}.
+   */
+  public static final String INIT_MODE_PROPERTY = "mybatis-cdi.registry.init";
+
+  /**
+   * System property limiting the number of threads building the factories in {@code parallel} mode.
+   */
+  public static final String INIT_THREADS_PROPERTY = "mybatis-cdi.registry.threads";
+
+  /**
+   * System property enabling the {@link Transactional#timeout()} of the transactions on every factory, without
+   * declaring the {@link TransactionTimeoutInterceptor} plugin in their MyBatis configuration.
+   */
+  public static final String TIMEOUT_PLUGIN_PROPERTY = "mybatis-cdi.registry.timeout-plugin";
+
+  enum InitMode {
+    EAGER, PARALLEL, LAZY;
+
+    static InitMode of(String value) {
+      if (value == null) {
+        return EAGER;
+      }
+      try {
+        return valueOf(value.trim().toUpperCase(Locale.ROOT));
+      } catch (IllegalArgumentException e) {
+        throw new MybatisCdiConfigurationException("Invalid " + INIT_MODE_PROPERTY + ": " + value);
+      }
+    }
+  }
+
+  private final Map<SqlSessionFactory, SqlSessionManager> managers = new ConcurrentHashMap<>();
+
+  private final Collection<SqlSessionManager> managerView = Collections.unmodifiableCollection(this.managers.values());
+
+  private boolean lazy;
+
+  private boolean timeoutPlugin;
+
+  private Map<String, Factory> factoriesByName;
+
+  private Map<Class<? extends Annotation>, List<Factory>> factoriesByQualifier;
+
+  private Map<Annotation, List<Factory>> factoriesByAnnotation;
+
+  private Map<Factory, Factory> replicas;
+
+  /**
+   * Replica of each primary whose manager was created, replaced by a larger copy as primaries are resolved.
+   */
+  private volatile Map<SqlSessionManager, Factory> replicasByManager = Map.of();
 
   @Inject
   @Any
@@ -46,20 +131,313 @@ public class SqlSessionManagerRegistry {
     if (this.factories.isUnsatisfied()) {
       throw new MybatisCdiConfigurationException("There are no SqlSessionFactory producers properly configured.");
     }
-    Map<SqlSessionFactory, SqlSessionManager> m = new HashMap<>();
-    for (SqlSessionFactory factory : this.factories) {
-      SqlSessionManager manager = SqlSessionManager.newInstance(factory);
-      m.put(factory, manager);
+    InitMode mode = InitMode.of(System.getProperty(INIT_MODE_PROPERTY));
+    List<Instance.Handle<SqlSessionFactory>> handles = new ArrayList<>();
+    this.factories.handles().forEach(handles::add);
+    Map<String, Factory> byName = new HashMap<>();
+    Map<Class<? extends Annotation>, List<Factory>> byQualifier = new HashMap<>();
+    Map<Annotation, List<Factory>> byAnnotation = new HashMap<>();
+    Map<String, Factory> replicasByPrimaryName = new HashMap<>();
+    List<Factory> all = new ArrayList<>();
+    for (Instance.Handle<SqlSessionFactory> handle : handles) {
+      Factory factory = new Factory(handle);
+      all.add(factory);
+      Bean<SqlSessionFactory> bean = handle.getBean();
+      if (bean.getName() != null) {
+        byName.put(bean.getName(), factory);
+      }
+      for (Annotation qualifier : bean.getQualifiers()) {
+        byQualifier.computeIfAbsent(qualifier.annotationType(), k -> new ArrayList<>()).add(factory);
+        byAnnotation.computeIfAbsent(qualifier, k -> new ArrayList<>()).add(factory);
+        if (qualifier instanceof ReadReplica replica) {
+          replicasByPrimaryName.put(replica.value(), factory);
+        }
+      }
+    }
+    Map<Factory, Factory> r = new HashMap<>();
+    replicasByPrimaryName.forEach((primaryName, replica) -> {
+      Factory primary = byName.get(primaryName);
+      if (primary == null) {
+        throw new MybatisCdiConfigurationException(
+            "There is no SqlSessionFactory named " + primaryName + " to be the primary of a @ReadReplica");
+      }
+      r.put(primary, replica);
+    });
+    this.lazy = mode == InitMode.LAZY;
+    this.timeoutPlugin = Boolean.getBoolean(TIMEOUT_PLUGIN_PROPERTY);
+    this.factoriesByName = Map.copyOf(byName);
+    this.factoriesByQualifier = copyOf(byQualifier);
+    this.factoriesByAnnotation = copyOf(byAnnotation);
+    this.replicas = Map.copyOf(r);
+    if (mode == InitMode.PARALLEL && handles.size() > 1) {
+      List<SqlSessionFactory> resolved = resolveInParallel(handles);
+      for (int i = 0; i < all.size(); i++) {
+        all.get(i).resolve(resolved.get(i));
+      }
+    } else if (!this.lazy) {
+      all.forEach(Factory::getManager);
     }
-    this.managers = Collections.unmodifiableMap(m);
   }
 
+  private static <K> Map<K, List<Factory>> copyOf(Map<K, List<Factory>> map) {
+    Map<K, List<Factory>> copy = new HashMap<>();
+    map.forEach((key, value) -> copy.put(key, List.copyOf(value)));
+    return Map.copyOf(copy);
+  }
+
+  /**
+   * Resolves the factories concurrently. The first failure cancels the factories not built yet, and the failures
+   * already raised by the other factories are added to it as suppressed exceptions.
+   */
+  private static List<SqlSessionFactory> resolveInParallel(List<Instance.Handle<SqlSessionFactory>> handles) {
+    int threads = Math.min(handles.size(),
+        Math.max(1, Integer.getInteger(INIT_THREADS_PROPERTY, Runtime.getRuntime().availableProcessors())));
+    AtomicInteger count = new AtomicInteger();
+    ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+      Thread thread = new Thread(runnable, "mybatis-cdi-init-" + count.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+    try {
+      CompletionService<SqlSessionFactory> completion = new ExecutorCompletionService<>(executor);
+      Map<Future<SqlSessionFactory>, Integer> futures = new HashMap<>();
+      for (Instance.Handle<SqlSessionFactory> handle : handles) {
+        futures.put(completion.submit(handle::get), futures.size());
+      }
+      SqlSessionFactory[] resolved = new SqlSessionFactory[handles.size()];
+      MybatisCdiConfigurationException failure = null;
+      for (int i = 0; i < handles.size(); i++) {
+        Future<SqlSessionFactory> future = completion.take();
+        try {
+          resolved[futures.get(future)] = future.get();
+        } catch (ExecutionException e) {
+          if (failure == null) {
+            failure = new MybatisCdiConfigurationException("Could not initialize the SqlSessionFactory producers",
+                e.getCause());
+            futures.keySet().forEach(f -> f.cancel(true));
+          } else {
+            failure.addSuppressed(e.getCause());
+          }
+        } catch (CancellationException e) {
+          // Cancelled after a failure
+        }
+      }
+      if (failure != null) {
+        throw failure;
+      }
+      return Arrays.asList(resolved);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new MybatisCdiConfigurationException("Interrupted while initializing the SqlSessionFactory producers", e);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  /**
+   * Gets the manager of a factory. In {@code lazy} mode the manager is created on the first call.
+   *
+   * @param factory
+   *          the factory
+   *
+   * @return the manager
+   */
   public SqlSessionManager getManager(SqlSessionFactory factory) {
-    return this.managers.get(factory);
+    return this.lazy ? this.managers.computeIfAbsent(factory, this::newManager)
+        : this.managers.get(factory);
+  }
+
+  /**
+   * Gets the manager of the factory with the given {@code @Named} name, without going through the
+   * {@code BeanManager}.
+   *
+   * @param name
+   *          the name of the factory
+   *
+   * @return the manager
+   *
+   * @throws MybatisCdiConfigurationException
+   *           if no factory has this name
+   */
+  public SqlSessionManager getManager(String name) {
+    Factory factory = this.factoriesByName.get(name);
+    if (factory == null) {
+      throw new MybatisCdiConfigurationException("There is no SqlSessionFactory named " + name);
+    }
+    return factory.getManager();
+  }
+
+  /**
+   * Gets the manager of the factory having all the given qualifiers, without going through the {@code BeanManager}.
+   * Qualifiers are compared with their members, as in CDI resolution.
+   *
+   * @param qualifiers
+   *          the qualifiers, {@code @Default} when empty
+   *
+   * @return the manager
+   *
+   * @throws MybatisCdiConfigurationException
+   *           if no factory or more than one factory has these qualifiers
+   */
+  public SqlSessionManager getManager(Annotation... qualifiers) {
+    List<Factory> candidates = this.factoriesByAnnotation
+        .getOrDefault(qualifiers.length == 0 ? Default.Literal.INSTANCE : qualifiers[0], List.of());
+    if (qualifiers.length > 1) {
+      candidates = new ArrayList<>(candidates);
+      for (int i = 1; i < qualifiers.length; i++) {
+        candidates.retainAll(this.factoriesByAnnotation.getOrDefault(qualifiers[i], List.of()));
+      }
+    }
+    if (candidates.size() != 1) {
+      throw new MybatisCdiConfigurationException((candidates.isEmpty() ? "There is no SqlSessionFactory"
+          : "There is more than one SqlSessionFactory") + " qualified with " + Arrays.toString(qualifiers));
+    }
+    return candidates.get(0).getManager();
   }
 
+  /**
+   * Gets the managers created so far, which are all the managers unless the registry is {@code lazy}.
+   *
+   * @return the managers
+   */
   public Collection<SqlSessionManager> getManagers() {
-    return this.managers.values();
+    return this.managerView;
+  }
+
+  /**
+   * Gets the manager of the read replica of a factory.
+   *
+   * @param primary
+   *          the manager of the primary factory
+   *
+   * @return the manager of the factory annotated with {@link ReadReplica}, null if the primary has no replica
+   */
+  public SqlSessionManager getReplica(SqlSessionManager primary) {
+    Factory replica = this.replicasByManager.get(primary);
+    if (replica == null && this.lazy) {
+      replica = findLazyReplica(primary);
+    }
+    return replica == null ? null : replica.getManager();
+  }
+
+  /**
+   * Finds the replica of a manager created by {@link #getManager(SqlSessionFactory)} before its primary was resolved,
+   * comparing the factories so no other manager is created.
+   */
+  private Factory findLazyReplica(SqlSessionManager primary) {
+    for (Map.Entry<Factory, Factory> entry : this.replicas.entrySet()) {
+      Factory candidate = entry.getKey();
+      if (candidate.manager == null && this.managers.get(candidate.getFactory()) == primary) {
+        candidate.getManager();
+        return entry.getValue();
+      }
+    }
+    return null;
+  }
+
+  private synchronized void addReplica(SqlSessionManager primary, Factory replica) {
+    Map<SqlSessionManager, Factory> added = new HashMap<>(this.replicasByManager);
+    added.put(primary, replica);
+    this.replicasByManager = Map.copyOf(added);
+  }
+
+  /**
+   * Gets the managers of the factories with any of the given names or qualifiers.
+   *
+   * @param names
+   *          the {@code @Named} names of the factories
+   * @param qualifiers
+   *          the qualifiers of the factories
+   *
+   * @return the managers
+   *
+   * @throws MybatisCdiConfigurationException
+   *           if a name or qualifier does not match any factory
+   */
+  public Collection<SqlSessionManager> getManagers(String[] names, Class<? extends Annotation>[] qualifiers) {
+    Set<SqlSessionManager> selected = new LinkedHashSet<>();
+    for (String name : names) {
+      selected.add(getManager(name));
+    }
+    for (Class<? extends Annotation> qualifier : qualifiers) {
+      List<Factory> qualified = this.factoriesByQualifier.get(qualifier);
+      if (qualified == null) {
+        throw new MybatisCdiConfigurationException(
+            "There is no SqlSessionFactory qualified with @" + qualifier.getName());
+      }
+      for (Factory factory : qualified) {
+        selected.add(factory.getManager());
+      }
+    }
+    return Collections.unmodifiableSet(selected);
+  }
+
+  /**
+   * Creates the manager of a factory. When enabled, the {@link TransactionTimeoutInterceptor} plugin is added to its
+   * configuration now, before any of its sessions is used through the registry, because MyBatis does not guard its
+   * interceptor chain against concurrent changes.
+   */
+  private SqlSessionManager newManager(SqlSessionFactory factory) {
+    if (this.timeoutPlugin) {
+      TransactionTimeoutInterceptor.install(factory.getConfiguration());
+    }
+    return SqlSessionManager.newInstance(factory);
+  }
+
+  /**
+   * A factory producer, whose manager is created once.
+   */
+  private final class Factory {
+
+    private final Instance.Handle<SqlSessionFactory> handle;
+
+    private volatile SqlSessionFactory factory;
+
+    private volatile SqlSessionManager manager;
+
+    Factory(Instance.Handle<SqlSessionFactory> handle) {
+      this.handle = handle;
+    }
+
+    SqlSessionFactory getFactory() {
+      SqlSessionFactory f = this.factory;
+      if (f == null) {
+        synchronized (this) {
+          f = this.factory;
+          if (f == null) {
+            f = this.handle.get();
+            this.factory = f;
+          }
+        }
+      }
+      return f;
+    }
+
+    SqlSessionManager getManager() {
+      SqlSessionManager m = this.manager;
+      if (m == null) {
+        synchronized (this) {
+          m = this.manager;
+          if (m == null) {
+            m = resolve(getFactory());
+          }
+        }
+      }
+      return m;
+    }
+
+    synchronized SqlSessionManager resolve(SqlSessionFactory resolved) {
+      SqlSessionManager m = SqlSessionManagerRegistry.this.managers.computeIfAbsent(resolved,
+          SqlSessionManagerRegistry.this::newManager);
+      this.factory = resolved;
+      this.manager = m;
+      Factory replica = SqlSessionManagerRegistry.this.replicas.get(this);
+      if (replica != null) {
+        addReplica(m, replica);
+      }
+      return m;
+    }
+
   }
 
 }
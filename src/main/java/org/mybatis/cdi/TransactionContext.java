@@ -0,0 +1,606 @@
+/*
+ *    Copyright 2013-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.cdi;
+
+import jakarta.transaction.NotSupportedException;
+import jakarta.transaction.SystemException;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionManager;
+
+/**
+ * State of the transaction running on the current thread. It is created by the interceptor that initiates the
+ * transaction and keeps track of the managers whose managed session was started by it, so only those are committed,
+ * rolled back and closed.
+ * <p>
+ * Mapper and {@code SqlSession} proxies call {@link #enlist(SqlSessionManager)} before each call, which starts the
+ * managed session of a lazy transaction the first time a manager is used and routes read-only transactions to the
+ * read replica of the manager, if it has one. They also count the calls of {@code BATCH} transactions having a batch
+ * size, flushing the pending statements each time the size is reached.
+ */
+final class TransactionContext {
+
+  private static final ThreadLocal<TransactionContext> CURRENT = new ThreadLocal<>();
+
+  private final TransactionDescriptor transaction;
+
+  private Collection<SqlSessionManager> scope;
+
+  private final SqlSessionManagerRegistry registry;
+
+  private final List<SqlSessionManager> participants = new ArrayList<>();
+
+  private final List<SqlSessionManager> readOnlyParticipants = new ArrayList<>();
+
+  /**
+   * Value of {@link System#nanoTime()} when the transaction times out, meaningless without timeout.
+   */
+  private final long deadline;
+
+  private ExecutorType executorType;
+
+  private Begin pendingBegin;
+
+  private boolean begun;
+
+  private int pendingCalls;
+
+  private Consumer<List<BatchResult>> batchListener;
+
+  /**
+   * Savepoints of the running nested transactions, innermost first. Null until the first nested transaction.
+   */
+  private Deque<Map<SqlSessionManager, Savepoint>> savepoints;
+
+  private TransactionContext(TransactionDescriptor transaction, Collection<SqlSessionManager> scope,
+      SqlSessionManagerRegistry registry) {
+    this.transaction = transaction;
+    this.scope = scope;
+    this.registry = registry;
+    this.executorType = transaction.getExecutorType();
+    this.deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(transaction.getTimeout());
+  }
+
+  /**
+   * Gets the transaction running on the current thread.
+   *
+   * @return the context or null if no transaction is running
+   */
+  static TransactionContext current() {
+    return CURRENT.get();
+  }
+
+  /**
+   * Binds a new transaction to the current thread.
+   *
+   * @param transaction
+   *          the transaction settings
+   * @param scope
+   *          the managers that may take part in the transaction, null for all of them
+   * @param registry
+   *          the registry that knows the read replicas
+   *
+   * @return the context
+   */
+  static TransactionContext begin(TransactionDescriptor transaction, Collection<SqlSessionManager> scope,
+      SqlSessionManagerRegistry registry) {
+    TransactionContext context = new TransactionContext(transaction, scope, registry);
+    CURRENT.set(context);
+    return context;
+  }
+
+  /**
+   * Starts the managed session of the manager if a transaction is running on the current thread, the manager is in its
+   * scope and does not take part in it yet.
+   *
+   * @param manager
+   *          the manager about to be used
+   *
+   * @return the manager to use, which is the read replica of the given one in read-only transactions
+   */
+  static SqlSessionManager enlist(SqlSessionManager manager) {
+    TransactionContext context = CURRENT.get();
+    if (context == null || context.scope != null && !context.scope.contains(manager)) {
+      return manager;
+    }
+    SqlSessionManager target = context.route(manager);
+    context.start(target);
+    int batchSize = context.transaction.getBatchSize();
+    if (batchSize > 0 && ++context.pendingCalls > batchSize) {
+      context.flushBatch();
+      context.pendingCalls = 1;
+    }
+    return target;
+  }
+
+  /**
+   * Widens the scope of this transaction to the managers of a transactional method joining it, so that method does not
+   * run any of its managers outside of the transaction.
+   *
+   * @param joining
+   *          the settings of the method joining the transaction
+   *
+   * @return the managers that were out of the scope so far
+   */
+  Collection<SqlSessionManager> widen(TransactionDescriptor joining) {
+    if (this.scope == null) {
+      return List.of();
+    }
+    List<SqlSessionManager> added = new ArrayList<>();
+    for (SqlSessionManager manager : joining.getManagers(this.registry)) {
+      if (!this.scope.contains(manager)) {
+        added.add(manager);
+      }
+    }
+    if (!joining.isScoped()) {
+      this.scope = null;
+    } else if (!added.isEmpty()) {
+      Set<SqlSessionManager> widened = new HashSet<>(this.scope);
+      widened.addAll(added);
+      this.scope = widened;
+    }
+    return added;
+  }
+
+  /**
+   * Gets the manager that serves the calls made through the given one in this transaction.
+   *
+   * @param manager
+   *          the manager
+   *
+   * @return the read replica of the manager in read-only transactions, the manager itself otherwise
+   */
+  SqlSessionManager route(SqlSessionManager manager) {
+    if (this.transaction.isReadOnly() && this.registry != null) {
+      SqlSessionManager replica = this.registry.getReplica(manager);
+      if (replica != null) {
+        return replica;
+      }
+    }
+    return manager;
+  }
+
+  /**
+   * Starts the managed session of the manager, unless it was already started by this transaction or somewhere else.
+   * The connection of read-only transactions is set read-only.
+   *
+   * @param manager
+   *          the manager
+   *
+   * @return true, if the session was started by this call
+   */
+  boolean start(SqlSessionManager manager) {
+    if (this.participants.contains(manager) || manager.isManagedSessionStarted()) {
+      return false;
+    }
+    if (this.pendingBegin != null) {
+      Begin begin = this.pendingBegin;
+      this.pendingBegin = null;
+      try {
+        begin.begin();
+      } catch (NotSupportedException | SystemException e) {
+        throw new MybatisCdiTransactionException("Could not begin the JTA transaction", e);
+      }
+      this.begun = true;
+    }
+    manager.startManagedSession(this.executorType, this.transaction.getIsolationLevel());
+    this.participants.add(manager);
+    if (this.transaction.isReadOnly()) {
+      try {
+        Connection connection = manager.getConnection();
+        if (!connection.isReadOnly()) {
+          connection.setReadOnly(true);
+          this.readOnlyParticipants.add(manager);
+        }
+      } catch (SQLException e) {
+        throw new MybatisCdiTransactionException("Could not set the connection read-only", e);
+      }
+    }
+    if (this.savepoints != null) {
+      // the running nested transactions roll back the work of this session too, outermost savepoint first
+      for (Iterator<Map<SqlSessionManager, Savepoint>> it = this.savepoints.descendingIterator(); it.hasNext();) {
+        setSavepoint(manager, it.next());
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Defers the beginning of the JTA transaction until the first managed session is started, so a unit of work that
+   * does not use any session does not involve the transaction manager.
+   *
+   * @param begin
+   *          begins the JTA transaction
+   */
+  void beginBeforeFirstSession(Begin begin) {
+    this.pendingBegin = begin;
+  }
+
+  /**
+   * Checks if the deferred JTA transaction was begun.
+   *
+   * @return true, if a managed session was started and the transaction begun
+   */
+  boolean isBegun() {
+    return this.begun;
+  }
+
+  /**
+   * Checks if the transaction has a timeout.
+   *
+   * @return true, if the transaction has a deadline
+   */
+  boolean hasDeadline() {
+    return this.transaction.getTimeout() > 0;
+  }
+
+  /**
+   * Gets the time left before the deadline, rounded up to the second.
+   *
+   * @return the remaining seconds, at least 1
+   *
+   * @throws MybatisCdiTransactionException
+   *           if the deadline has passed
+   */
+  int getRemainingSeconds() {
+    long remaining = this.deadline - System.nanoTime();
+    if (remaining <= 0) {
+      throw new MybatisCdiTransactionException(
+          "The transaction timed out after " + this.transaction.getTimeout() + " seconds");
+    }
+    long second = TimeUnit.SECONDS.toNanos(1);
+    return (int) Math.min(Integer.MAX_VALUE, (remaining + second - 1) / second);
+  }
+
+  /**
+   * Gets the managers whose managed session was started by this transaction.
+   *
+   * @return the participants
+   */
+  List<SqlSessionManager> getParticipants() {
+    return this.participants;
+  }
+
+  /**
+   * Begins a nested transaction by setting a savepoint on the connection of each participant. Managers first used
+   * inside the nested transaction get a savepoint when their session starts.
+   */
+  void setSavepoints() {
+    Map<SqlSessionManager, Savepoint> nested = new LinkedHashMap<>();
+    for (SqlSessionManager manager : this.participants) {
+      setSavepoint(manager, nested);
+    }
+    if (this.savepoints == null) {
+      this.savepoints = new ArrayDeque<>();
+    }
+    this.savepoints.push(nested);
+  }
+
+  /**
+   * Ends the innermost nested transaction, rolling back to its savepoints or releasing them.
+   *
+   * @param rollback
+   *          true to undo the work of the nested transaction
+   */
+  void releaseSavepoints(boolean rollback) {
+    Map<SqlSessionManager, Savepoint> nested = this.savepoints.pop();
+    for (Map.Entry<SqlSessionManager, Savepoint> entry : nested.entrySet()) {
+      SqlSessionManager manager = entry.getKey();
+      try {
+        if (rollback) {
+          discardBatch(manager);
+          manager.getConnection().rollback(entry.getValue());
+          // the local cache may hold rows written by the nested transaction
+          manager.clearCache();
+        } else {
+          flushPending(manager);
+          manager.getConnection().releaseSavepoint(entry.getValue());
+        }
+      } catch (SQLException e) {
+        throw new MybatisCdiTransactionException(
+            rollback ? "Could not roll back to the savepoint" : "Could not release the savepoint", e);
+      }
+    }
+  }
+
+  private void setSavepoint(SqlSessionManager manager, Map<SqlSessionManager, Savepoint> nested) {
+    // statements batched before the savepoint belong to the outer transaction
+    flushPending(manager);
+    try {
+      nested.put(manager, manager.getConnection().setSavepoint());
+    } catch (SQLException e) {
+      throw new MybatisCdiTransactionException("Could not set a savepoint", e);
+    }
+  }
+
+  private void flushPending(SqlSessionManager manager) {
+    if (this.executorType == ExecutorType.BATCH) {
+      manager.flushStatements();
+    }
+  }
+
+  private void discardBatch(SqlSessionManager manager) {
+    try {
+      flushPending(manager);
+    } catch (RuntimeException e) {
+      // the failed batch is dropped by the executor and its statements are rolled back anyway
+    }
+  }
+
+  /**
+   * Runs a block with another executor type. The statements batched so far are flushed, then the managed session of
+   * each participant is replaced by a session of this executor type on the same connection, so the block stays in the
+   * transaction. The statements of the block are flushed when it completes, and discarded if it fails. Then the
+   * original sessions are restored. Managers first used inside the block keep this executor type for the rest of the
+   * transaction.
+   *
+   * @param <T>
+   *          the result type
+   * @param type
+   *          the executor type
+   * @param block
+   *          the block
+   *
+   * @return the result of the block
+   */
+  <T> T withExecutor(ExecutorType type, Supplier<T> block) {
+    if (type == this.executorType) {
+      return block.get();
+    }
+    ExecutorType previous = this.executorType;
+    List<SqlSessionManager> switched = new ArrayList<>(this.participants);
+    List<SqlSession> originals = new ArrayList<>(switched.size());
+    List<SqlSession> sessions = new ArrayList<>(switched.size());
+    try {
+      for (SqlSessionManager manager : switched) {
+        // the statements of the block must run after the ones batched before it
+        flushPending(manager);
+        SqlSession original = ManagedSessions.detach(manager);
+        originals.add(original);
+        SqlSession session = manager.openSession(type, borrow(original.getConnection()));
+        ManagedSessions.attach(manager, session);
+        sessions.add(session);
+      }
+      this.executorType = type;
+      T result = block.get();
+      for (SqlSession session : sessions) {
+        session.flushStatements();
+      }
+      for (SqlSessionManager manager : this.participants.subList(switched.size(), this.participants.size())) {
+        manager.flushStatements();
+      }
+      return result;
+    } finally {
+      this.executorType = previous;
+      for (int i = 0; i < originals.size(); i++) {
+        ManagedSessions.attach(switched.get(i), originals.get(i));
+        // the block may have changed rows cached by the original session
+        originals.get(i).clearCache();
+      }
+      for (SqlSession session : sessions) {
+        // closes the statements of the block, the borrowed connection stays open and in the transaction
+        session.close();
+      }
+    }
+  }
+
+  /**
+   * Wraps the connection of a session for a temporary session, which must neither end the transaction nor close the
+   * connection.
+   */
+  private static Connection borrow(Connection connection) {
+    return (Connection) Proxy.newProxyInstance(TransactionContext.class.getClassLoader(),
+        new Class<?>[] { Connection.class }, (proxy, method, args) -> switch (method.getName()) {
+          case "close", "commit", "rollback", "setAutoCommit" -> null;
+          default -> {
+            try {
+              yield method.invoke(connection, args);
+            } catch (InvocationTargetException e) {
+              throw e.getTargetException();
+            }
+          }
+        });
+  }
+
+  /**
+   * Flushes the pending statements of the participants.
+   *
+   * @return the results of the flushed statements
+   */
+  List<BatchResult> flushStatements() {
+    this.pendingCalls = 0;
+    if (this.participants.size() == 1) {
+      return this.participants.get(0).flushStatements();
+    }
+    List<BatchResult> results = new ArrayList<>();
+    for (SqlSessionManager manager : this.participants) {
+      results.addAll(manager.flushStatements());
+    }
+    return results;
+  }
+
+  /**
+   * Flushes the pending statements of the participants and hands their results to the batch listener, if any.
+   */
+  void flushBatch() {
+    List<BatchResult> results = flushStatements();
+    if (this.batchListener != null && !results.isEmpty()) {
+      this.batchListener.accept(results);
+    }
+  }
+
+  /**
+   * Sets the listener of the results of the automatic flushes.
+   *
+   * @param batchListener
+   *          the listener, null to discard the results
+   */
+  void setBatchListener(Consumer<List<BatchResult>> batchListener) {
+    this.batchListener = batchListener;
+  }
+
+  boolean hasBatchListener() {
+    return this.batchListener != null;
+  }
+
+  /**
+   * Closes the managed sessions of the participants, restoring the connections that were set read-only, and unbinds
+   * this transaction from the current thread.
+   */
+  void close() {
+    MybatisCdiTransactionException failure = null;
+    try {
+      for (SqlSessionManager manager : this.participants) {
+        try {
+          if (this.readOnlyParticipants.contains(manager)) {
+            manager.getConnection().setReadOnly(false);
+          }
+        } catch (SQLException e) {
+          if (failure == null) {
+            failure = new MybatisCdiTransactionException("Could not restore the read-only flag of the connection", e);
+          }
+        } finally {
+          manager.close();
+        }
+      }
+    } finally {
+      end();
+    }
+    if (failure != null) {
+      throw failure;
+    }
+  }
+
+  /**
+   * Unbinds this transaction from the current thread.
+   */
+  void end() {
+    CURRENT.remove();
+  }
+
+  /**
+   * Unbinds the running transaction from the current thread and detaches the managed sessions of its participants, so
+   * mappers run outside of it until {@link Suspended#resume()} is called.
+   *
+   * @return the suspended transaction, null if no transaction was running
+   */
+  static Suspended suspend() {
+    TransactionContext context = CURRENT.get();
+    if (context == null) {
+      return null;
+    }
+    List<SqlSession> sessions = new ArrayList<>(context.participants.size());
+    for (SqlSessionManager manager : context.participants) {
+      sessions.add(ManagedSessions.detach(manager));
+    }
+    CURRENT.remove();
+    return new Suspended(context, sessions);
+  }
+
+  /**
+   * Begins a JTA transaction.
+   */
+  @FunctionalInterface
+  interface Begin {
+
+    void begin() throws NotSupportedException, SystemException;
+
+  }
+
+  /**
+   * A transaction removed from its thread by {@link TransactionContext#suspend()}.
+   */
+  static final class Suspended {
+
+    private final TransactionContext context;
+
+    private final List<SqlSession> sessions;
+
+    private Suspended(TransactionContext context, List<SqlSession> sessions) {
+      this.context = context;
+      this.sessions = sessions;
+    }
+
+    /**
+     * Binds the transaction to the current thread again along with the managed sessions of its participants.
+     */
+    void resume() {
+      for (int i = 0; i < this.sessions.size(); i++) {
+        ManagedSessions.attach(this.context.participants.get(i), this.sessions.get(i));
+      }
+      CURRENT.set(this.context);
+    }
+
+    /**
+     * Commits the detached sessions, which flushes their pending statements.
+     *
+     * @param force
+     *          forces the commit
+     */
+    void commitSessions(boolean force) {
+      for (SqlSession session : this.sessions) {
+        session.commit(force);
+      }
+    }
+
+    /**
+     * Closes the detached sessions, restoring the connections that were set read-only.
+     */
+    void closeSessions() {
+      MybatisCdiTransactionException failure = null;
+      for (int i = 0; i < this.sessions.size(); i++) {
+        SqlSession session = this.sessions.get(i);
+        try {
+          if (this.context.readOnlyParticipants.contains(this.context.participants.get(i))) {
+            session.getConnection().setReadOnly(false);
+          }
+        } catch (SQLException e) {
+          if (failure == null) {
+            failure = new MybatisCdiTransactionException("Could not restore the read-only flag of the connection", e);
+          }
+        } finally {
+          session.close();
+        }
+      }
+      if (failure != null) {
+        throw failure;
+      }
+    }
+
+  }
+
+}
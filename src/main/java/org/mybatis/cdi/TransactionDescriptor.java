@@ -0,0 +1,303 @@
+/*
+ *    Copyright 2013-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.cdi;
+
+import jakarta.interceptor.InvocationContext;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSessionManager;
+import org.apache.ibatis.session.TransactionIsolationLevel;
+
+/**
+ * Immutable transaction settings of a {@link Transactional} method. Descriptors are resolved on the first call of each
+ * method and cached per interceptor class and declaring class, so the interceptor does not read annotations on every
+ * call. Interceptors may override {@link LocalTransactionInterceptor#getTransactionalAnnotation(InvocationContext)},
+ * so a descriptor built by one interceptor class is never handed to another.
+ */
+final class TransactionDescriptor {
+
+  private static final ClassValue<ClassValue<Map<Method, TransactionDescriptor>>> DESCRIPTORS = new ClassValue<>() {
+    @Override
+    protected ClassValue<Map<Method, TransactionDescriptor>> computeValue(Class<?> interceptorClass) {
+      return new ClassValue<>() {
+        @Override
+        protected Map<Method, TransactionDescriptor> computeValue(Class<?> type) {
+          return new ConcurrentHashMap<>();
+        }
+      };
+    }
+  };
+
+  private final Transactional transactional;
+
+  private final Propagation propagation;
+
+  private final ExecutorType executorType;
+
+  private final TransactionIsolationLevel isolationLevel;
+
+  private final boolean force;
+
+  private final boolean rollbackOnly;
+
+  private final boolean lazy;
+
+  private final boolean readOnly;
+
+  private final int batchSize;
+
+  private final int timeout;
+
+  private final int retryAttempts;
+
+  private final Set<String> retrySqlStates;
+
+  private final long retryBackoff;
+
+  private final boolean parallelCommit;
+
+  private final String[] sessionFactoryNames;
+
+  private final Class<? extends Annotation>[] sessionFactoryQualifiers;
+
+  private final Class<? extends Throwable>[] rollbackFor;
+
+  private final Map<Class<?>, Boolean> rollbackDecisions = new ConcurrentHashMap<>();
+
+  private volatile ScopedManagers scopedManagers;
+
+  TransactionDescriptor(Transactional transactional) {
+    this.transactional = transactional;
+    this.propagation = transactional.propagation();
+    this.executorType = transactional.executorType();
+    this.isolationLevel = transactional.isolation().getTransactionIsolationLevel();
+    this.force = transactional.force();
+    this.rollbackOnly = transactional.rollbackOnly();
+    this.lazy = transactional.lazy();
+    this.readOnly = transactional.readOnly();
+    this.timeout = Math.max(0, transactional.timeout());
+    this.retryAttempts = Math.max(1, transactional.retryAttempts());
+    this.retrySqlStates = Set.copyOf(Arrays.asList(transactional.retrySqlStates()));
+    this.retryBackoff = Math.max(0, transactional.retryBackoff());
+    this.parallelCommit = transactional.parallelCommit();
+    this.batchSize = this.executorType == ExecutorType.BATCH ? Math.max(0, transactional.batchSize()) : 0;
+    this.sessionFactoryNames = transactional.sessionFactoryNames();
+    this.sessionFactoryQualifiers = transactional.sessionFactoryQualifiers();
+    this.rollbackFor = transactional.rollbackFor();
+  }
+
+  /**
+   * Gets the descriptor of the intercepted method, resolving its annotation on the first call.
+   *
+   * @param ctx
+   *          the invocation context
+   * @param interceptorClass
+   *          the class of the interceptor, whose descriptors are cached apart from the other interceptors
+   * @param resolver
+   *          finds the {@link Transactional} annotation that applies to the intercepted method
+   *
+   * @return the descriptor
+   */
+  static TransactionDescriptor of(InvocationContext ctx, Class<?> interceptorClass,
+      Function<InvocationContext, Transactional> resolver) {
+    Method method = ctx.getMethod();
+    Map<Method, TransactionDescriptor> descriptors = DESCRIPTORS.get(interceptorClass).get(method.getDeclaringClass());
+    TransactionDescriptor descriptor = descriptors.get(method);
+    if (descriptor == null) {
+      descriptor = descriptors.computeIfAbsent(method, m -> new TransactionDescriptor(resolver.apply(ctx)));
+    }
+    return descriptor;
+  }
+
+  Transactional getTransactional() {
+    return this.transactional;
+  }
+
+  Propagation getPropagation() {
+    return this.propagation;
+  }
+
+  ExecutorType getExecutorType() {
+    return this.executorType;
+  }
+
+  TransactionIsolationLevel getIsolationLevel() {
+    return this.isolationLevel;
+  }
+
+  boolean isForce() {
+    return this.force;
+  }
+
+  boolean isRollbackOnly() {
+    return this.rollbackOnly;
+  }
+
+  boolean isLazy() {
+    return this.lazy;
+  }
+
+  boolean isReadOnly() {
+    return this.readOnly;
+  }
+
+  /**
+   * Gets the number of calls after which batched statements are flushed.
+   *
+   * @return the batch size, 0 if the statements are flushed on commit only or the executor does not batch
+   */
+  int getBatchSize() {
+    return this.batchSize;
+  }
+
+  /**
+   * Gets the number of seconds the transaction may run.
+   *
+   * @return the timeout, 0 if none
+   */
+  int getTimeout() {
+    return this.timeout;
+  }
+
+  /**
+   * Checks if the sessions are committed and rolled back concurrently.
+   *
+   * @return true, if parallel commit
+   */
+  boolean isParallelCommit() {
+    return this.parallelCommit;
+  }
+
+  /**
+   * Gets how many times the transaction may run.
+   *
+   * @return the number of attempts, at least 1
+   */
+  int getRetryAttempts() {
+    return this.retryAttempts;
+  }
+
+  /**
+   * Gets the delay before the given retry: the backoff doubled for each earlier retry, minus a random jitter of up to
+   * half of it.
+   *
+   * @param retry
+   *          the retry, starting at 1
+   *
+   * @return the delay in milliseconds
+   */
+  long getRetryDelay(int retry) {
+    long delay = this.retryBackoff << Math.min(retry - 1, 20);
+    return delay - ThreadLocalRandom.current().nextLong(delay / 2 + 1);
+  }
+
+  /**
+   * Gets the managers that take part in the transaction.
+   *
+   * @param registry
+   *          the registry
+   *
+   * @return the managers of the factories selected by the annotation, or all the managers if none is selected
+   */
+  Collection<SqlSessionManager> getManagers(SqlSessionManagerRegistry registry) {
+    if (!isScoped()) {
+      return registry.getManagers();
+    }
+    ScopedManagers scoped = this.scopedManagers;
+    if (scoped == null || scoped.registry() != registry) {
+      scoped = new ScopedManagers(registry,
+          registry.getManagers(this.sessionFactoryNames, this.sessionFactoryQualifiers));
+      this.scopedManagers = scoped;
+    }
+    return scoped.managers();
+  }
+
+  /**
+   * Checks if the transaction is limited to some factories.
+   *
+   * @return true, if the annotation selects factories by name or qualifier
+   */
+  boolean isScoped() {
+    return this.sessionFactoryNames.length > 0 || this.sessionFactoryQualifiers.length > 0;
+  }
+
+  /**
+   * Checks whether the exception must roll the transaction back. Runtime exceptions always do, checked ones only when
+   * they match {@link Transactional#rollbackFor()}. The decision is memoized per exception class.
+   *
+   * @param throwable
+   *          the exception thrown by the intercepted method
+   *
+   * @return true, if the transaction must be rolled back
+   */
+  boolean needsRollback(Throwable throwable) {
+    if (throwable instanceof RuntimeException) {
+      return true;
+    }
+    Class<?> exceptionClass = throwable.getClass();
+    Boolean decision = this.rollbackDecisions.get(exceptionClass);
+    if (decision == null) {
+      decision = this.rollbackDecisions.computeIfAbsent(exceptionClass, this::matchesRollbackFor);
+    }
+    return decision;
+  }
+
+  /**
+   * Checks whether a failed transaction can run again, that is if the exception rolled it back and is caused by an
+   * {@code SQLException} with one of the {@link Transactional#retrySqlStates()}.
+   *
+   * @param throwable
+   *          the exception thrown by the transaction
+   *
+   * @return true, if the transaction can be retried
+   */
+  boolean isRetryable(Throwable throwable) {
+    if (!needsRollback(throwable)) {
+      return false;
+    }
+    for (Throwable cause = throwable; cause != null; cause = cause.getCause() == cause ? null : cause.getCause()) {
+      if (cause instanceof SQLException sqlException && sqlException.getSQLState() != null
+          && this.retrySqlStates.contains(sqlException.getSQLState())) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private boolean matchesRollbackFor(Class<?> exceptionClass) {
+    for (Class<? extends Throwable> rollbackClass : this.rollbackFor) {
+      if (rollbackClass.isAssignableFrom(exceptionClass)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private record ScopedManagers(SqlSessionManagerRegistry registry, Collection<SqlSessionManager> managers) {
+  }
+
+}
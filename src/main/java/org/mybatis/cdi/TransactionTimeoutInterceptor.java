@@ -0,0 +1,74 @@
+/*
+ *    Copyright 2013-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.cdi;
+
+import java.sql.Connection;
+
+import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.Configuration;
+
+/**
+ * MyBatis plugin that applies the deadline of the running {@link Transactional#timeout()} to every statement. The
+ * remaining time is passed as transaction timeout to {@link StatementHandler#prepare(Connection, Integer)}, so MyBatis
+ * sets it as query timeout unless the statement has a shorter one, and the driver cancels the statement when it runs
+ * past the deadline. Statements prepared after the deadline fail with a {@link MybatisCdiTransactionException}.
+ * <p>
+ * The plugin is not installed by default, so the configurations of applications without timeouts keep their interceptor
+ * chain. Declare it in the MyBatis configuration file of the factories whose transactions have a timeout, or set the
+ * {@value SqlSessionManagerRegistry#TIMEOUT_PLUGIN_PROPERTY} system property to let the registry add it to every
+ * factory when it creates its manager, so the interceptor chain is never changed while statements run.
+ */
+@Intercepts(@Signature(type = StatementHandler.class, method = "prepare", args = { Connection.class, Integer.class }))
+public class TransactionTimeoutInterceptor implements Interceptor {
+
+  @Override
+  public Object intercept(Invocation invocation) throws Throwable {
+    TransactionContext context = TransactionContext.current();
+    if (context != null && context.hasDeadline()) {
+      Object[] args = invocation.getArgs();
+      int remaining = context.getRemainingSeconds();
+      if (args[1] == null || (Integer) args[1] > remaining) {
+        args[1] = remaining;
+      }
+    }
+    return invocation.proceed();
+  }
+
+  /**
+   * Adds the plugin to the configuration unless it is already there.
+   *
+   * @param configuration
+   *          the configuration, may be null
+   */
+  static void install(Configuration configuration) {
+    if (configuration == null) {
+      return;
+    }
+    synchronized (configuration) {
+      for (Interceptor interceptor : configuration.getInterceptors()) {
+        if (interceptor instanceof TransactionTimeoutInterceptor) {
+          return;
+        }
+      }
+      configuration.addInterceptor(new TransactionTimeoutInterceptor());
+    }
+  }
+
+}
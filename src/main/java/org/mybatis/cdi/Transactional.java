@@ -18,6 +18,7 @@ package org.mybatis.cdi;
 import jakarta.enterprise.util.Nonbinding;
 import jakarta.interceptor.InterceptorBinding;
 
+import java.lang.annotation.Annotation;
 import java.lang.annotation.ElementType;
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
@@ -41,6 +42,14 @@ public @interface Transactional {
   @Nonbinding
   ExecutorType executorType() default ExecutorType.SIMPLE;
 
+  /**
+   * Returns the constant indicating how the method behaves with or without a running transaction.
+   *
+   * @return Propagation.REQUIRED by default, user defined otherwise.
+   */
+  @Nonbinding
+  Propagation propagation() default Propagation.REQUIRED;
+
   /**
    * Returns the constant indicating the transaction isolation level.
    *
@@ -74,4 +83,103 @@ public @interface Transactional {
   @Nonbinding
   Class<? extends Throwable>[] rollbackFor() default {};
 
+  /**
+   * If true, the managed session of each {@code SqlSessionFactory} is started the first time one of its mappers is used
+   * inside the transaction, and only those sessions are committed and closed. Otherwise a session is started on every
+   * factory when the transaction begins. An injected {@code SqlSession} is the {@code SqlSessionManager} itself and
+   * does not start a session, so it joins the transaction only once a mapper of the same factory was used. With JTA, a
+   * transaction initiated by the interceptor is begun right before the first session starts, and not at all when no
+   * session is used.
+   *
+   * @return false by default, user defined otherwise.
+   */
+  @Nonbinding
+  boolean lazy() default false;
+
+  /**
+   * If true, the connections are set read-only, the sessions are closed without commit and mappers of factories that
+   * have a {@link ReadReplica} are routed to it. Nested methods joining the transaction are read-only as well.
+   *
+   * @return false by default, user defined otherwise.
+   */
+  @Nonbinding
+  boolean readOnly() default false;
+
+  /**
+   * Defines the {@code @Named} names of the {@code SqlSessionFactory} producers that take part in the transaction.
+   * Together with {@link #sessionFactoryQualifiers()}, limits the transaction to the matching factories.
+   *
+   * @return an empty array by default, meaning all the factories when no qualifier is set either.
+   */
+  @Nonbinding
+  String[] sessionFactoryNames() default {};
+
+  /**
+   * Defines the qualifiers of the {@code SqlSessionFactory} producers that take part in the transaction. A factory
+   * takes part if it has any of the qualifiers or any of the {@link #sessionFactoryNames()}.
+   *
+   * @return an empty array by default, meaning all the factories when no name is set either.
+   */
+  @Nonbinding
+  Class<? extends Annotation>[] sessionFactoryQualifiers() default {};
+
+  /**
+   * Number of mapper calls after which the pending statements of a {@code BATCH} transaction are
+   * flushed, so they are not all kept in memory until the commit. The results of each flush are handed to the listener
+   * set with {@link Transactions#onBatchFlush(java.util.function.Consumer)}, if any.
+   *
+   * @return 0 by default, meaning the statements are flushed on commit only. Ignored by other executor types.
+   */
+  @Nonbinding
+  int batchSize() default 0;
+
+  /**
+   * Defines the number of seconds the transaction may run. Each statement gets the remaining time as query timeout, so
+   * the driver cancels it when the deadline passes, and statements issued after the deadline fail. JTA transactions
+   * begun by the interceptor get it as transaction timeout. The statement timeouts need the
+   * {@link TransactionTimeoutInterceptor} plugin.
+   *
+   * @return 0 by default, meaning no timeout.
+   */
+  @Nonbinding
+  int timeout() default 0;
+
+  /**
+   * Defines how many times the transaction is run before a retryable failure is rethrown. A transaction that fails with
+   * one of the {@link #retrySqlStates()} is rolled back and the method runs again in new sessions. Only transactions
+   * started by the interceptor are retried, calls that join a running transaction are not.
+   *
+   * @return 1 by default, meaning no retry.
+   */
+  @Nonbinding
+  int retryAttempts() default 1;
+
+  /**
+   * Defines the SQLState codes of the {@code SQLException} causes that make a failed transaction retryable.
+   *
+   * @return the serialization failure (40001) and the PostgreSQL deadlock (40P01) codes by default.
+   */
+  @Nonbinding
+  String[] retrySqlStates() default { "40001", "40P01" };
+
+  /**
+   * Defines the delay in milliseconds before the first retry. The delay doubles with each retry and a random jitter of
+   * up to half the delay is subtracted, so that the conflicting transactions do not collide again.
+   *
+   * @return 100 by default.
+   */
+  @Nonbinding
+  long retryBackoff() default 100;
+
+  /**
+   * If true, the sessions of a transaction involving several {@code SqlSessionFactory} are committed or rolled back
+   * concurrently, so completing the transaction takes as long as the slowest database instead of the sum of all. Every
+   * session is completed even if another one fails; the failure of the first session in the order they joined the
+   * transaction is thrown, with the later ones suppressed.
+   *
+   * @return false by default, user defined otherwise.
+   */
+  @Nonbinding
+  boolean parallelCommit() default false;
+
 }
@@ -0,0 +1,92 @@
+/*
+ *    Copyright 2013-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.cdi;
+
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.session.ExecutorType;
+
+/**
+ * Access to the {@link Transactional} transaction running on the current thread.
+ */
+public final class Transactions {
+
+  private Transactions() {
+    // this class cannot be instantiated
+  }
+
+  /**
+   * Flushes the pending statements of the current transaction, for instance to read the generated keys of a
+   * {@code BATCH} transaction before the commit.
+   *
+   * @return the results of the flushed statements, empty if the executor does not batch
+   *
+   * @throws MybatisCdiTransactionException
+   *           if no transaction is running
+   */
+  public static List<BatchResult> flushStatements() {
+    return current().flushStatements();
+  }
+
+  /**
+   * Sets the listener of the statements flushed automatically in the current transaction, when
+   * {@link Transactional#batchSize()} is reached and before the commit. The results are not kept once the listener
+   * returns, so the update counts and generated keys can be processed by chunks.
+   *
+   * @param listener
+   *          the listener, null to discard the results
+   *
+   * @throws MybatisCdiTransactionException
+   *           if no transaction is running
+   */
+  public static void onBatchFlush(Consumer<List<BatchResult>> listener) {
+    current().setBatchListener(listener);
+  }
+
+  /**
+   * Runs a block of the current transaction with another executor type, for instance a bulk insert with
+   * {@code ExecutorType.BATCH} in a transaction that otherwise reads with the {@code SIMPLE} executor. The block uses
+   * the same connections and transaction, after the statements batched before it. Its statements are flushed when it
+   * completes and discarded if it fails.
+   *
+   * @param <T>
+   *          the result type
+   * @param executorType
+   *          the executor type
+   * @param block
+   *          the block
+   *
+   * @return the result of the block
+   *
+   * @throws MybatisCdiTransactionException
+   *           if no transaction is running
+   */
+  public static <T> T withExecutor(ExecutorType executorType, Supplier<T> block) {
+    return current().withExecutor(executorType, block);
+  }
+
+  private static TransactionContext current() {
+    TransactionContext context = TransactionContext.current();
+    if (context == null) {
+      throw new MybatisCdiTransactionException("No transaction is running on the current thread");
+    }
+    return context;
+  }
+
+}
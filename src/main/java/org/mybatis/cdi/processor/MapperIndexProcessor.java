@@ -0,0 +1,231 @@
+/*
+ *    Copyright 2013-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.cdi.processor;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic.Kind;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+
+import org.mybatis.cdi.MapperIndex;
+
+/**
+ * Writes the {@link MapperIndex} of the compiled classes: the {@code @Mapper} interfaces with their scope, and the
+ * injection points of mappers and {@code SqlSession} of every class declaring an {@code @Inject} member.
+ * <p>
+ * A class is left out of the index, and discovered at runtime, when one of these injection points uses a qualifier
+ * with members other than {@code @Named}.
+ * <p>
+ * Like {@link MapperProxyProcessor}, it only runs when named with the {@code -processor} option.
+ */
+@SupportedAnnotationTypes({ MapperIndexProcessor.MAPPER_ANNOTATION, MapperIndexProcessor.INJECT_ANNOTATION })
+public class MapperIndexProcessor extends AbstractProcessor {
+
+  static final String MAPPER_ANNOTATION = "org.mybatis.cdi.Mapper";
+
+  static final String INJECT_ANNOTATION = "jakarta.inject.Inject";
+
+  private static final String SQL_SESSION = "org.apache.ibatis.session.SqlSession";
+
+  private static final String NAMED = "jakarta.inject.Named";
+
+  private static final String QUALIFIER = "jakarta.inject.Qualifier";
+
+  private static final String SCOPE = "jakarta.inject.Scope";
+
+  private static final String NORMAL_SCOPE = "jakarta.enterprise.context.NormalScope";
+
+  private final Set<String> mappers = new TreeSet<>();
+
+  private final Set<String> injectionPoints = new TreeSet<>();
+
+  private final Set<String> targets = new HashSet<>();
+
+  @Override
+  public SourceVersion getSupportedSourceVersion() {
+    return SourceVersion.latestSupported();
+  }
+
+  @Override
+  public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+    TypeElement mapperAnnotation = this.processingEnv.getElementUtils().getTypeElement(MAPPER_ANNOTATION);
+    TypeElement injectAnnotation = this.processingEnv.getElementUtils().getTypeElement(INJECT_ANNOTATION);
+    if (mapperAnnotation == null || injectAnnotation == null) {
+      return false;
+    }
+    for (Element element : roundEnv.getElementsAnnotatedWith(mapperAnnotation)) {
+      if (element.getKind() == ElementKind.INTERFACE) {
+        this.mappers.add(mapperEntry((TypeElement) element));
+      }
+    }
+    for (Element element : roundEnv.getElementsAnnotatedWith(injectAnnotation)) {
+      if (element.getEnclosingElement() instanceof TypeElement target && target.getKind() == ElementKind.CLASS
+          && this.targets.add(binaryName(target))) {
+        index(target);
+      }
+    }
+    if (roundEnv.processingOver()) {
+      write();
+    }
+    return false;
+  }
+
+  private String mapperEntry(TypeElement type) {
+    StringBuilder sb = new StringBuilder(MapperIndex.MAPPER).append(MapperIndex.SEPARATOR).append(binaryName(type));
+    for (AnnotationMirror annotation : type.getAnnotationMirrors()) {
+      TypeElement annotationType = (TypeElement) annotation.getAnnotationType().asElement();
+      if (isAnnotated(annotationType, NORMAL_SCOPE) || isAnnotated(annotationType, SCOPE)) {
+        sb.append(MapperIndex.SEPARATOR).append(binaryName(annotationType));
+      }
+    }
+    return sb.toString();
+  }
+
+  /**
+   * Indexes the injection points of a class, including the inherited ones.
+   */
+  private void index(TypeElement target) {
+    List<String> entries = new ArrayList<>();
+    for (TypeElement type = target; type != null; type = superclass(type)) {
+      for (Element member : type.getEnclosedElements()) {
+        if (!isAnnotated(member, INJECT_ANNOTATION)) {
+          continue;
+        }
+        List<? extends VariableElement> variables = switch (member.getKind()) {
+          case FIELD -> List.of((VariableElement) member);
+          case METHOD -> ((ExecutableElement) member).getParameters();
+          case CONSTRUCTOR -> type == target ? ((ExecutableElement) member).getParameters() : List.of();
+          default -> List.of();
+        };
+        for (VariableElement variable : variables) {
+          if (!addEntry(entries, variable)) {
+            this.processingEnv.getMessager().printMessage(Kind.NOTE,
+                "MyBatis CDI - Not indexed, qualifier with members: " + target.getQualifiedName(), variable);
+            return;
+          }
+        }
+      }
+    }
+    this.injectionPoints.add(MapperIndex.TARGET + MapperIndex.SEPARATOR + binaryName(target));
+    this.injectionPoints.addAll(entries);
+  }
+
+  private boolean addEntry(List<String> entries, VariableElement variable) {
+    TypeMirror type = variable.asType();
+    if (type.getKind() != TypeKind.DECLARED) {
+      return true;
+    }
+    TypeElement typeElement = (TypeElement) ((DeclaredType) type).asElement();
+    if (typeElement.getKind() != ElementKind.INTERFACE || !((DeclaredType) type).getTypeArguments().isEmpty()
+        || !isAnnotated(typeElement, MAPPER_ANNOTATION) && !typeElement.getQualifiedName().contentEquals(SQL_SESSION)) {
+      return true;
+    }
+    StringBuilder sb = new StringBuilder(MapperIndex.INJECT).append(MapperIndex.SEPARATOR)
+        .append(binaryName(typeElement));
+    for (AnnotationMirror annotation : variable.getAnnotationMirrors()) {
+      TypeElement annotationType = (TypeElement) annotation.getAnnotationType().asElement();
+      if (!isAnnotated(annotationType, QUALIFIER)) {
+        continue;
+      }
+      sb.append(MapperIndex.SEPARATOR).append(binaryName(annotationType));
+      if (annotationType.getQualifiedName().contentEquals(NAMED)) {
+        String name = "";
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> value : annotation.getElementValues()
+            .entrySet()) {
+          name = value.getValue().getValue().toString();
+        }
+        if (name.contains(MapperIndex.SEPARATOR) || name.contains("\n")) {
+          return false;
+        }
+        sb.append('=').append(name);
+      } else if (!ElementFilter.methodsIn(annotationType.getEnclosedElements()).isEmpty()) {
+        return false;
+      }
+    }
+    entries.add(sb.toString());
+    return true;
+  }
+
+  private void write() {
+    if (this.mappers.isEmpty() && this.injectionPoints.isEmpty()) {
+      return;
+    }
+    try {
+      FileObject file = this.processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "",
+          MapperIndex.RESOURCE);
+      try (Writer writer = new OutputStreamWriter(file.openOutputStream(), StandardCharsets.UTF_8)) {
+        writer.write("# Generated by " + MapperIndexProcessor.class.getName() + "\n");
+        for (String entry : this.mappers) {
+          writer.write(entry + "\n");
+        }
+        for (String entry : this.injectionPoints) {
+          writer.write(entry + "\n");
+        }
+      }
+    } catch (IOException e) {
+      this.processingEnv.getMessager().printMessage(Kind.ERROR,
+          "MyBatis CDI - Could not write " + MapperIndex.RESOURCE + ": " + e.getMessage());
+    }
+  }
+
+  private TypeElement superclass(TypeElement type) {
+    TypeMirror superclass = type.getSuperclass();
+    if (superclass.getKind() != TypeKind.DECLARED) {
+      return null;
+    }
+    TypeElement element = (TypeElement) ((DeclaredType) superclass).asElement();
+    return element.getQualifiedName().contentEquals("java.lang.Object") ? null : element;
+  }
+
+  private boolean isAnnotated(Element element, String annotation) {
+    for (AnnotationMirror mirror : element.getAnnotationMirrors()) {
+      if (((TypeElement) mirror.getAnnotationType().asElement()).getQualifiedName().contentEquals(annotation)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private String binaryName(TypeElement type) {
+    return this.processingEnv.getElementUtils().getBinaryName(type).toString();
+  }
+
+}
@@ -0,0 +1,213 @@
+/*
+ *    Copyright 2013-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.cdi.processor;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.TypeParameterElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.ExecutableType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic.Kind;
+import javax.tools.JavaFileObject;
+
+import org.mybatis.cdi.GeneratedMapperProxy;
+
+/**
+ * Generates a {@link GeneratedMapperProxy} subclass for every interface annotated with {@code @Mapper}. The generated
+ * class implements the mapper and forwards each abstract method directly to the MyBatis mapper.
+ * <p>
+ * Generic mappers, private mappers and mappers declaring a {@code delegate()} method are skipped and keep using a
+ * {@code java.lang.reflect.Proxy} at runtime.
+ * <p>
+ * The processor is not registered as a service, so it does not run in every build that has mybatis-cdi on its
+ * classpath. Builds opt in by naming it with the {@code -processor} option.
+ */
+@SupportedAnnotationTypes(MapperProxyProcessor.MAPPER_ANNOTATION)
+public class MapperProxyProcessor extends AbstractProcessor {
+
+  static final String MAPPER_ANNOTATION = "org.mybatis.cdi.Mapper";
+
+  @Override
+  public SourceVersion getSupportedSourceVersion() {
+    return SourceVersion.latestSupported();
+  }
+
+  @Override
+  public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+    TypeElement mapperAnnotation = this.processingEnv.getElementUtils().getTypeElement(MAPPER_ANNOTATION);
+    if (mapperAnnotation == null) {
+      return false;
+    }
+    for (Element element : roundEnv.getElementsAnnotatedWith(mapperAnnotation)) {
+      if (element.getKind() == ElementKind.INTERFACE) {
+        TypeElement type = (TypeElement) element;
+        if (isSupported(type)) {
+          generate(type);
+        }
+      }
+    }
+    return false;
+  }
+
+  private boolean isSupported(TypeElement type) {
+    if (!type.getTypeParameters().isEmpty()) {
+      note(type, "generic mapper");
+      return false;
+    }
+    for (Element e = type; e instanceof TypeElement; e = e.getEnclosingElement()) {
+      if (e.getModifiers().contains(Modifier.PRIVATE)) {
+        note(type, "private mapper");
+        return false;
+      }
+    }
+    for (ExecutableElement method : mapperMethods(type)) {
+      if (method.getSimpleName().contentEquals("delegate") && method.getParameters().isEmpty()) {
+        note(type, "it declares a delegate() method");
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private void note(TypeElement type, String reason) {
+    this.processingEnv.getMessager().printMessage(Kind.NOTE,
+        "MyBatis CDI - No proxy generated for " + type.getQualifiedName() + ": " + reason, type);
+  }
+
+  private List<ExecutableElement> mapperMethods(TypeElement type) {
+    List<ExecutableElement> methods = new ArrayList<>();
+    Set<String> signatures = new HashSet<>();
+    for (ExecutableElement method : ElementFilter.methodsIn(this.processingEnv.getElementUtils().getAllMembers(type))) {
+      Set<Modifier> modifiers = method.getModifiers();
+      if (modifiers.contains(Modifier.ABSTRACT) && !modifiers.contains(Modifier.STATIC)
+          && !"java.lang.Object".equals(((TypeElement) method.getEnclosingElement()).getQualifiedName().toString())
+          && signatures.add(signature(method))) {
+        methods.add(method);
+      }
+    }
+    return methods;
+  }
+
+  private String signature(ExecutableElement method) {
+    return method.getSimpleName() + method.getParameters().stream()
+        .map(p -> this.processingEnv.getTypeUtils().erasure(p.asType()).toString())
+        .collect(Collectors.joining(",", "(", ")"));
+  }
+
+  private void generate(TypeElement type) {
+    PackageElement pkg = this.processingEnv.getElementUtils().getPackageOf(type);
+    String packageName = pkg.isUnnamed() ? "" : pkg.getQualifiedName().toString();
+    String binaryName = this.processingEnv.getElementUtils().getBinaryName(type).toString();
+    String simpleName = (packageName.isEmpty() ? binaryName : binaryName.substring(packageName.length() + 1))
+        + GeneratedMapperProxy.CLASS_NAME_SUFFIX;
+    String mapperName = type.getQualifiedName().toString();
+
+    StringBuilder sb = new StringBuilder();
+    if (!packageName.isEmpty()) {
+      sb.append("package ").append(packageName).append(";\n\n");
+    }
+    sb.append("/**\n * MyBatis CDI proxy of {@link ").append(mapperName).append("}, generated by ")
+        .append(MapperProxyProcessor.class.getName()).append(".\n */\n");
+    sb.append("public final class ").append(simpleName).append(" extends ")
+        .append(GeneratedMapperProxy.class.getName()).append('<').append(mapperName).append("> implements ")
+        .append(mapperName).append(" {\n\n");
+    sb.append("  private static final long serialVersionUID = 1L;\n\n");
+    sb.append("  public ").append(simpleName).append("(org.mybatis.cdi.MyBatisBean bean,\n")
+        .append("      jakarta.enterprise.context.spi.CreationalContext<?> creationalContext) {\n")
+        .append("    super(bean, creationalContext);\n  }\n");
+    DeclaredType declaredType = (DeclaredType) type.asType();
+    for (ExecutableElement method : mapperMethods(type)) {
+      ExecutableType methodType = (ExecutableType) this.processingEnv.getTypeUtils().asMemberOf(declaredType, method);
+      appendMethod(sb, method, methodType);
+    }
+    sb.append("\n}\n");
+
+    String qualifiedName = packageName.isEmpty() ? simpleName : packageName + "." + simpleName;
+    try {
+      JavaFileObject file = this.processingEnv.getFiler().createSourceFile(qualifiedName, type);
+      try (Writer writer = file.openWriter()) {
+        writer.write(sb.toString());
+      }
+    } catch (IOException e) {
+      this.processingEnv.getMessager().printMessage(Kind.ERROR,
+          "MyBatis CDI - Could not generate proxy for " + mapperName + ": " + e.getMessage(), type);
+    }
+  }
+
+  private void appendMethod(StringBuilder sb, ExecutableElement method, ExecutableType methodType) {
+    sb.append("\n  @Override\n  public ");
+    List<? extends TypeParameterElement> typeParameters = method.getTypeParameters();
+    if (!typeParameters.isEmpty()) {
+      sb.append(typeParameters.stream().map(this::typeParameter).collect(Collectors.joining(", ", "<", "> ")));
+    }
+    sb.append(methodType.getReturnType()).append(' ').append(method.getSimpleName()).append('(');
+    List<? extends TypeMirror> parameterTypes = methodType.getParameterTypes();
+    for (int i = 0; i < parameterTypes.size(); i++) {
+      if (i > 0) {
+        sb.append(", ");
+      }
+      String parameterType = parameterTypes.get(i).toString();
+      if (method.isVarArgs() && i == parameterTypes.size() - 1) {
+        parameterType = parameterType.substring(0, parameterType.length() - 2) + "...";
+      }
+      sb.append(parameterType).append(" arg").append(i);
+    }
+    sb.append(')');
+    List<? extends TypeMirror> thrownTypes = methodType.getThrownTypes();
+    if (!thrownTypes.isEmpty()) {
+      sb.append(thrownTypes.stream().map(TypeMirror::toString).collect(Collectors.joining(", ", " throws ", "")));
+    }
+    sb.append(" {\n    ");
+    if (methodType.getReturnType().getKind() != TypeKind.VOID) {
+      sb.append("return ");
+    }
+    sb.append("delegate().").append(method.getSimpleName()).append('(');
+    for (int i = 0; i < parameterTypes.size(); i++) {
+      if (i > 0) {
+        sb.append(", ");
+      }
+      sb.append("arg").append(i);
+    }
+    sb.append(");\n  }\n");
+  }
+
+  private String typeParameter(TypeParameterElement typeParameter) {
+    List<String> bounds = typeParameter.getBounds().stream().map(TypeMirror::toString)
+        .filter(bound -> !"java.lang.Object".equals(bound)).collect(Collectors.toList());
+    return bounds.isEmpty() ? typeParameter.getSimpleName().toString()
+        : typeParameter.getSimpleName() + " extends " + String.join(" & ", bounds);
+  }
+
+}
@@ -0,0 +1,91 @@
+/*
+ *    Copyright 2013-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.cdi;
+
+import jakarta.enterprise.context.spi.CreationalContext;
+import jakarta.enterprise.inject.literal.NamedLiteral;
+import jakarta.enterprise.inject.spi.Bean;
+import jakarta.enterprise.inject.spi.BeanManager;
+
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.weld.environment.se.Weld;
+import org.jboss.weld.environment.se.WeldContainer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Throughput of mapper bean creation with the {@link CDIUtils} resolution cache, and with an empty cache on each
+ * creation, which is what every creation paid before the cache existed.
+ * <p>
+ * Run with {@code mvn -Pbenchmark test-compile exec:exec -Dbenchmark=BeanCreationBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BeanCreationBenchmark {
+
+  private WeldContainer container;
+
+  private BeanManager beanManager;
+
+  private Bean<Object> bean;
+
+  @SuppressWarnings("unchecked")
+  @Setup
+  public void setup() {
+    this.container = new Weld().initialize();
+    this.beanManager = this.container.getBeanManager();
+    this.bean = (Bean<Object>) this.beanManager
+        .resolve(this.beanManager.getBeans(UserMapper.class, NamedLiteral.of("manager1")));
+  }
+
+  @TearDown
+  public void tearDown() {
+    this.container.shutdown();
+  }
+
+  @Benchmark
+  public Object createCached() {
+    return create();
+  }
+
+  @Benchmark
+  public Object createUncached() {
+    CDIUtils.clearCache(this.beanManager);
+    return create();
+  }
+
+  private Object create() {
+    CreationalContext<Object> creationalContext = this.beanManager.createCreationalContext(this.bean);
+    Object mapper = this.bean.create(creationalContext);
+    this.bean.destroy(mapper, creationalContext);
+    return mapper;
+  }
+
+}
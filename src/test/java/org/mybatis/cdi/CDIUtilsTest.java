@@ -0,0 +1,120 @@
+/*
+ *    Copyright 2013-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.cdi;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anySet;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.context.Dependent;
+import jakarta.enterprise.context.spi.CreationalContext;
+import jakarta.enterprise.inject.spi.Bean;
+import jakarta.enterprise.inject.spi.BeanManager;
+import jakarta.enterprise.inject.spi.CDI;
+
+import java.lang.annotation.Annotation;
+import java.util.Set;
+
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.MockedStatic;
+
+class CDIUtilsTest {
+
+  private final BeanManager beanManager = mock(BeanManager.class);
+
+  private final CreationalContext<Object> creationalContext = mock(CreationalContext.class);
+
+  private MockedStatic<CDI> cdiStatic;
+
+  @SuppressWarnings("unchecked")
+  @BeforeEach
+  void setup() {
+    CDI<Object> cdi = mock(CDI.class);
+    when(cdi.getBeanManager()).thenReturn(this.beanManager);
+    this.cdiStatic = mockStatic(CDI.class);
+    this.cdiStatic.when(CDI::current).thenReturn(cdi);
+    CDIUtils.clearCache(this.beanManager);
+  }
+
+  @AfterEach
+  void tearDown() {
+    CDIUtils.clearCache(this.beanManager);
+    this.cdiStatic.close();
+  }
+
+  @Test
+  void shouldResolveANormalScopedSqlSessionFactoryOnlyOnce() {
+    SqlSessionFactory factory = mock(SqlSessionFactory.class);
+    Bean<?> bean = mockBean(ApplicationScoped.class);
+    when(this.beanManager.isNormalScope(ApplicationScoped.class)).thenReturn(true);
+    when(this.beanManager.getReference(bean, SqlSessionFactory.class, this.creationalContext)).thenReturn(factory);
+
+    assertSame(factory, CDIUtils.findSqlSessionFactory(null, Set.of(), this.creationalContext));
+    assertSame(factory, CDIUtils.findSqlSessionFactory(null, Set.of(), this.creationalContext));
+
+    verify(this.beanManager, times(1)).getBeans(eq(SqlSessionFactory.class), any(Annotation[].class));
+    verify(this.beanManager, times(1)).getReference(bean, SqlSessionFactory.class, this.creationalContext);
+  }
+
+  @Test
+  void shouldRequestANewReferenceForEachLookupOfADependentSqlSessionFactory() {
+    Bean<?> bean = mockBean(Dependent.class);
+    when(this.beanManager.getReference(bean, SqlSessionFactory.class, this.creationalContext))
+        .thenReturn(mock(SqlSessionFactory.class));
+
+    CDIUtils.findSqlSessionFactory(null, Set.of(), this.creationalContext);
+    CDIUtils.findSqlSessionFactory(null, Set.of(), this.creationalContext);
+
+    verify(this.beanManager, times(1)).getBeans(eq(SqlSessionFactory.class), any(Annotation[].class));
+    verify(this.beanManager, times(2)).getReference(bean, SqlSessionFactory.class, this.creationalContext);
+  }
+
+  @Test
+  void shutdownShouldOnlyForgetTheResolutionsOfItsContainer() {
+    SqlSessionFactory factory = mock(SqlSessionFactory.class);
+    Bean<?> bean = mockBean(ApplicationScoped.class);
+    when(this.beanManager.isNormalScope(ApplicationScoped.class)).thenReturn(true);
+    when(this.beanManager.getReference(bean, SqlSessionFactory.class, this.creationalContext)).thenReturn(factory);
+
+    CDIUtils.findSqlSessionFactory(null, Set.of(), this.creationalContext);
+    CDIUtils.clearCache(mock(BeanManager.class));
+    CDIUtils.findSqlSessionFactory(null, Set.of(), this.creationalContext);
+    CDIUtils.clearCache(this.beanManager);
+    CDIUtils.findSqlSessionFactory(null, Set.of(), this.creationalContext);
+
+    verify(this.beanManager, times(2)).getBeans(eq(SqlSessionFactory.class), any(Annotation[].class));
+  }
+
+  @SuppressWarnings("unchecked")
+  private Bean<?> mockBean(Class<? extends Annotation> scope) {
+    Bean<Object> bean = mock(Bean.class);
+    when(bean.getScope()).thenReturn((Class) scope);
+    when(this.beanManager.getBeans(eq(SqlSessionFactory.class), any(Annotation[].class))).thenReturn(Set.of(bean));
+    when(this.beanManager.resolve(anySet())).thenReturn((Bean) bean);
+    return bean;
+  }
+
+}
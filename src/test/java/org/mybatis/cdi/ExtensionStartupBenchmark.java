@@ -0,0 +1,135 @@
+/*
+ *    Copyright 2013-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.cdi;
+
+import jakarta.enterprise.inject.literal.NamedLiteral;
+import jakarta.enterprise.inject.spi.AfterBeanDiscovery;
+import jakarta.enterprise.inject.spi.Annotated;
+import jakarta.enterprise.inject.spi.AnnotatedType;
+import jakarta.enterprise.inject.spi.InjectionPoint;
+import jakarta.enterprise.inject.spi.InjectionTarget;
+import jakarta.enterprise.inject.spi.ProcessAnnotatedType;
+import jakarta.enterprise.inject.spi.ProcessInjectionTarget;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Proxy;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.ibatis.session.SqlSession;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Feeds {@link MybatisExtension} with the container events of a synthetic deployment of 10k or 50k beans, each one
+ * with a single injection point. One in ten injection points needs a mapper or a SqlSession, the others are of common
+ * class and interface types.
+ * <p>
+ * Run with {@code mvn -Pbenchmark test-compile exec:exec -Dbenchmark=ExtensionStartupBenchmark}. Add
+ * {@code -prof gc} to the JMH arguments to see the allocation rate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExtensionStartupBenchmark {
+
+  private static final Type[] OTHER_TYPES = { String.class, Runnable.class, Object.class, List.class, Map.class,
+      Integer.class, Comparable.class, StringBuilder.class, AutoCloseable.class };
+
+  @Param({ "10000", "50000" })
+  public int beans;
+
+  private ProcessAnnotatedType<?> mapperType;
+
+  private List<ProcessInjectionTarget<?>> injectionTargets;
+
+  @Setup
+  public void setup() {
+    AnnotatedType<?> annotatedType = stub(AnnotatedType.class,
+        Map.of("isAnnotationPresent", true, "getBaseType", UserMapper.class, "getJavaClass", UserMapper.class,
+            "getAnnotations", Set.of()));
+    this.mapperType = stub(ProcessAnnotatedType.class, Map.of("getAnnotatedType", annotatedType));
+    this.injectionTargets = new ArrayList<>(this.beans);
+    for (int i = 0; i < this.beans; i++) {
+      Type type;
+      Set<Annotation> annotations;
+      if (i % 20 == 0) {
+        type = UserMapper.class;
+        annotations = Set.of(NamedLiteral.of("manager" + i % 3));
+      } else if (i % 20 == 10) {
+        type = SqlSession.class;
+        annotations = Set.of(NamedLiteral.of("manager" + i % 3));
+      } else {
+        type = OTHER_TYPES[i % OTHER_TYPES.length];
+        annotations = Set.of();
+      }
+      Annotated annotated = stub(Annotated.class, Map.of("getBaseType", type, "getAnnotations", annotations));
+      InjectionPoint injectionPoint = stub(InjectionPoint.class, Map.of("getAnnotated", annotated));
+      InjectionTarget<?> injectionTarget = stub(InjectionTarget.class,
+          Map.of("getInjectionPoints", Set.of(injectionPoint)));
+      this.injectionTargets.add(stub(ProcessInjectionTarget.class, Map.of("getInjectionTarget", injectionTarget)));
+    }
+  }
+
+  @Benchmark
+  public int discovery() {
+    MybatisExtension extension = new MybatisExtension();
+    extension.processAnnotatedType(this.mapperType);
+    for (ProcessInjectionTarget<?> event : this.injectionTargets) {
+      extension.processInjectionTarget(event);
+    }
+    AtomicInteger addedBeans = new AtomicInteger();
+    AfterBeanDiscovery afterBeanDiscovery = (AfterBeanDiscovery) Proxy.newProxyInstance(
+        AfterBeanDiscovery.class.getClassLoader(), new Class<?>[] { AfterBeanDiscovery.class },
+        (proxy, method, args) -> {
+          if ("addBean".equals(method.getName()) && args != null) {
+            addedBeans.incrementAndGet();
+          }
+          return null;
+        });
+    extension.afterBeanDiscovery(afterBeanDiscovery);
+    return addedBeans.get();
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <T> T stub(Class<T> type, Map<String, Object> values) {
+    return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type },
+        (proxy, method, args) -> switch (method.getName()) {
+          case "hashCode" -> System.identityHashCode(proxy);
+          case "equals" -> proxy == args[0];
+          case "toString" -> type.getSimpleName();
+          default -> values.get(method.getName());
+        });
+  }
+
+}
@@ -0,0 +1,179 @@
+/*
+ *    Copyright 2013-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.cdi;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import jakarta.enterprise.context.spi.CreationalContext;
+
+import java.lang.reflect.Proxy;
+import java.lang.reflect.Type;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionManager;
+import org.apache.ibatis.session.TransactionIsolationLevel;
+import org.junit.jupiter.api.Test;
+import org.mockito.MockedStatic;
+import org.mockito.Mockito;
+
+class GeneratedMapperProxyTest {
+
+  private static final Transactional LAZY = Lazy.class.getAnnotation(Transactional.class);
+
+  @Transactional(lazy = true)
+  private static final class Lazy {
+  }
+
+  interface GreetingMapper {
+    String greet(String name);
+  }
+
+  interface PlainMapper {
+    String greet(String name);
+  }
+
+  /**
+   * What the MapperProxyProcessor would generate for GreetingMapper.
+   */
+  public static final class GreetingMapper_MybatisCdiProxy extends GeneratedMapperProxy<GreetingMapper>
+      implements GreetingMapper {
+
+    private static final long serialVersionUID = 1L;
+
+    public GreetingMapper_MybatisCdiProxy(MyBatisBean bean, CreationalContext<?> creationalContext) {
+      super(bean, creationalContext);
+    }
+
+    @Override
+    public String greet(String name) {
+      return delegate().greet(name);
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  void shouldUseTheGeneratedProxyWhenAvailable() {
+    MyBatisBean bean = new MyBatisBean("id", (Class<Type>) (Type) GreetingMapper.class, Set.of(), null);
+    CreationalContext<Object> creationalContext = mock(CreationalContext.class);
+
+    try (MockedStatic<CDIUtils> cdiUtils = mockRegistry(bean, creationalContext, GreetingMapper.class,
+        name -> "Hello " + name)) {
+      Object instance = bean.create(creationalContext);
+
+      assertInstanceOf(GreetingMapper_MybatisCdiProxy.class, instance);
+      assertEquals("Hello World", ((GreetingMapper) instance).greet("World"));
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  void shouldFallBackToAJdkProxyWhenNoProxyWasGenerated() {
+    MyBatisBean bean = new MyBatisBean("id", (Class<Type>) (Type) PlainMapper.class, Set.of(), null);
+    CreationalContext<Object> creationalContext = mock(CreationalContext.class);
+
+    try (MockedStatic<CDIUtils> cdiUtils = mockRegistry(bean, creationalContext, PlainMapper.class,
+        (PlainMapper) name -> "Hi " + name)) {
+      Object instance = bean.create(creationalContext);
+
+      assertTrue(Proxy.isProxyClass(instance.getClass()));
+      assertFalse(instance instanceof GeneratedMapperProxy);
+      assertEquals("Hi World", ((PlainMapper) instance).greet("World"));
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  void generatedProxyShouldEnlistItsManagerInLazyTransactions() throws Exception {
+    MyBatisBean bean = new MyBatisBean("id", (Class<Type>) (Type) GreetingMapper.class, Set.of(), null);
+    CreationalContext<Object> creationalContext = mock(CreationalContext.class);
+
+    try (MockedStatic<CDIUtils> cdiUtils = mockRegistry(bean, creationalContext, GreetingMapper.class,
+        name -> "Hello " + name)) {
+      GreetingMapper instance = (GreetingMapper) bean.create(creationalContext);
+      SqlSessionManager manager = bean.findSqlSessionManager(creationalContext);
+      TransactionContext context = TransactionContext.begin(new TransactionDescriptor(LAZY), null, null);
+      try {
+        assertEquals("Hello World", instance.greet("World"));
+        assertEquals(List.of(manager), context.getParticipants());
+      } finally {
+        context.end();
+      }
+      verify(manager).startManagedSession(ExecutorType.SIMPLE, (TransactionIsolationLevel) null);
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  void shouldInjectTheManagerItselfAsSqlSession() {
+    MyBatisBean bean = new MyBatisBean("id", (Class<Type>) (Type) SqlSession.class, Set.of(), null);
+    CreationalContext<Object> creationalContext = mock(CreationalContext.class);
+
+    try (MockedStatic<CDIUtils> cdiUtils = mockRegistry(bean, creationalContext, SqlSession.class, null)) {
+      assertSame(bean.findSqlSessionManager(creationalContext), bean.create(creationalContext));
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  void jdkProxyShouldNotEnlistItsManagerForObjectMethods() {
+    MyBatisBean bean = new MyBatisBean("id", (Class<Type>) (Type) PlainMapper.class, Set.of(), null);
+    CreationalContext<Object> creationalContext = mock(CreationalContext.class);
+
+    try (MockedStatic<CDIUtils> cdiUtils = mockRegistry(bean, creationalContext, PlainMapper.class,
+        (PlainMapper) name -> "Hi " + name)) {
+      Object instance = bean.create(creationalContext);
+      SqlSessionManager manager = bean.findSqlSessionManager(creationalContext);
+      TransactionContext context = TransactionContext.begin(new TransactionDescriptor(LAZY), null, null);
+      try {
+        assertNotNull(instance.toString());
+        instance.hashCode();
+        assertTrue(context.getParticipants().isEmpty());
+      } finally {
+        context.end();
+      }
+      verify(manager, never()).startManagedSession(ExecutorType.SIMPLE, (TransactionIsolationLevel) null);
+    }
+  }
+
+  private static <M> MockedStatic<CDIUtils> mockRegistry(MyBatisBean bean, CreationalContext<Object> creationalContext,
+      Class<M> type, M mapper) {
+    SqlSessionFactory sessionFactory = mock(SqlSessionFactory.class);
+    SqlSessionManagerRegistry registry = mock(SqlSessionManagerRegistry.class);
+    SqlSessionManager manager = mock(SqlSessionManager.class);
+    when(registry.getManager(sessionFactory)).thenReturn(manager);
+    when(manager.getMapper(type)).thenReturn(mapper);
+
+    MockedStatic<CDIUtils> cdiUtils = Mockito.mockStatic(CDIUtils.class);
+    cdiUtils.when(() -> CDIUtils.findSqlSessionFactory(null, bean.getQualifiers(), creationalContext))
+        .thenReturn(sessionFactory);
+    cdiUtils.when(() -> CDIUtils.getRegistry(creationalContext)).thenReturn(registry);
+    return cdiUtils;
+  }
+
+}
@@ -0,0 +1,48 @@
+/*
+ *    Copyright 2013-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.cdi;
+
+import jakarta.inject.Inject;
+import jakarta.inject.Named;
+
+import org.apache.ibatis.session.SqlSession;
+
+/**
+ * Injects the mapper and SqlSession beans synthesized by {@link MybatisBuildCompatibleExtension}.
+ */
+public class LiteUserService {
+
+  @Inject
+  @Named("manager1")
+  private UserMapper userMapper;
+
+  @Inject
+  @Named("manager1")
+  private SqlSession sqlSession;
+
+  public void insertUser(User user) {
+    this.userMapper.insertUser(user);
+  }
+
+  public User getUserFromSqlSession(int id) {
+    return this.sqlSession.selectOne("org.mybatis.cdi.UserMapper.getUser", id);
+  }
+
+  public SqlSession getSqlSession() {
+    return this.sqlSession;
+  }
+
+}
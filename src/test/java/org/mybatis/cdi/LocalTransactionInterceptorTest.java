@@ -0,0 +1,841 @@
+/*
+ *    Copyright 2013-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.cdi;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.nullable;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import jakarta.interceptor.InvocationContext;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ibatis.exceptions.PersistenceException;
+import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionManager;
+import org.apache.ibatis.session.TransactionIsolationLevel;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+
+class LocalTransactionInterceptorTest {
+
+  static class SampleService {
+
+    @Transactional
+    public void eager() {
+      // nothing to do
+    }
+
+    @Transactional(lazy = true)
+    public void lazy() {
+      // nothing to do
+    }
+
+    @Transactional(sessionFactoryNames = "manager2")
+    public void scoped() {
+      // nothing to do
+    }
+
+    @Transactional(lazy = true, sessionFactoryNames = "manager2")
+    public void lazyScoped() {
+      // nothing to do
+    }
+
+    @Transactional(propagation = Propagation.REQUIRES_NEW, lazy = true)
+    public void requiresNew() {
+      // nothing to do
+    }
+
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public void supports() {
+      // nothing to do
+    }
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void notSupported() {
+      // nothing to do
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void mandatory() {
+      // nothing to do
+    }
+
+    @Transactional(propagation = Propagation.NEVER)
+    public void never() {
+      // nothing to do
+    }
+
+    @Transactional(readOnly = true, lazy = true)
+    public void readOnly() {
+      // nothing to do
+    }
+
+    @Transactional(executorType = ExecutorType.BATCH, batchSize = 2, lazy = true)
+    public void batch() {
+      // nothing to do
+    }
+
+    @Transactional(timeout = 30, lazy = true)
+    public void timed() {
+      // nothing to do
+    }
+
+    @Transactional(retryAttempts = 3, retryBackoff = 1, lazy = true)
+    public void retried() {
+      // nothing to do
+    }
+
+    @Transactional(propagation = Propagation.NESTED, lazy = true)
+    public void nested() {
+      // nothing to do
+    }
+
+    @Transactional(parallelCommit = true)
+    public void parallel() {
+      // nothing to do
+    }
+
+  }
+
+  private final SqlSessionManager manager1 = mock(SqlSessionManager.class);
+
+  private final SqlSessionManager manager2 = mock(SqlSessionManager.class);
+
+  private final SqlSessionManagerRegistry registry = mock(SqlSessionManagerRegistry.class);
+
+  private final LocalTransactionInterceptor interceptor = new LocalTransactionInterceptor();
+
+  @BeforeEach
+  void setup() throws Exception {
+    when(this.registry.getManagers()).thenReturn(List.of(this.manager1, this.manager2));
+    when(this.registry.getManagers(new String[] { "manager2" }, new Class[0])).thenReturn(List.of(this.manager2));
+    Field field = LocalTransactionInterceptor.class.getDeclaredField("registry");
+    field.setAccessible(true);
+    field.set(this.interceptor, this.registry);
+  }
+
+  @AfterEach
+  void checkThreadIsClean() {
+    assertNull(TransactionContext.current());
+  }
+
+  @Test
+  void eagerTransactionShouldStartEverySession() throws Exception {
+    this.interceptor.invoke(context("eager", () -> null));
+
+    verify(this.manager1).startManagedSession(ExecutorType.SIMPLE, (TransactionIsolationLevel) null);
+    verify(this.manager2).startManagedSession(ExecutorType.SIMPLE, (TransactionIsolationLevel) null);
+    verify(this.manager1).commit(false);
+    verify(this.manager2).commit(false);
+    verify(this.manager1).close();
+    verify(this.manager2).close();
+  }
+
+  @Test
+  void lazyTransactionShouldOnlyStartTheSessionsThatAreUsed() throws Exception {
+    this.interceptor.invoke(context("lazy", () -> {
+      TransactionContext.enlist(this.manager1);
+      TransactionContext.enlist(this.manager1);
+      return null;
+    }));
+
+    verify(this.manager1, times(1)).startManagedSession(ExecutorType.SIMPLE, (TransactionIsolationLevel) null);
+    verify(this.manager1).commit(false);
+    verify(this.manager1).close();
+    verifyNotStarted(this.manager2);
+    verify(this.manager2, never()).commit(anyBoolean());
+    verify(this.manager2, never()).close();
+  }
+
+  @Test
+  void lazyTransactionShouldRollBackTheSessionsThatAreUsed() throws Exception {
+    assertThrows(IllegalStateException.class, () -> this.interceptor.invoke(context("lazy", () -> {
+      TransactionContext.enlist(this.manager2);
+      throw new IllegalStateException("fail");
+    })));
+
+    verify(this.manager2).rollback(false);
+    verify(this.manager2).close();
+    verify(this.manager1, never()).rollback(anyBoolean());
+  }
+
+  @Test
+  void nestedCallShouldJoinTheRunningTransaction() throws Exception {
+    this.interceptor.invoke(context("lazy", () -> this.interceptor.invoke(context("eager", () -> {
+      TransactionContext.enlist(this.manager1);
+      return "inner";
+    }))));
+
+    verify(this.manager1, times(1)).startManagedSession(ExecutorType.SIMPLE, (TransactionIsolationLevel) null);
+    verify(this.manager1, times(1)).commit(false);
+    verify(this.manager1, times(1)).close();
+    verifyNotStarted(this.manager2);
+  }
+
+  @Test
+  void nestedCallShouldSkipTransactionSetup() throws Exception {
+    InvocationContext inner = context("eager", () -> "inner");
+    assertEquals("inner", this.interceptor.invoke(context("lazy", () -> this.interceptor.invoke(inner))));
+
+    verify(this.manager1, never()).isManagedSessionStarted();
+    verify(this.manager2, never()).isManagedSessionStarted();
+  }
+
+  @Test
+  void nestedCallShouldWidenTheScopeOfTheRunningTransaction() throws Exception {
+    assertThrows(IllegalStateException.class, () -> this.interceptor.invoke(context("lazyScoped", () -> {
+      TransactionContext.enlist(this.manager2);
+      this.interceptor.invoke(context("lazy", () -> {
+        TransactionContext.enlist(this.manager1);
+        return null;
+      }));
+      throw new IllegalStateException("fail");
+    })));
+
+    verify(this.manager1).startManagedSession(ExecutorType.SIMPLE, (TransactionIsolationLevel) null);
+    verify(this.manager1).rollback(false);
+    verify(this.manager2).rollback(false);
+    verify(this.manager1).close();
+  }
+
+  @Test
+  void eagerNestedCallShouldStartTheManagersOutOfTheRunningScope() throws Exception {
+    this.interceptor.invoke(context("lazyScoped", () -> this.interceptor.invoke(context("eager", () -> null))));
+
+    verify(this.manager1).startManagedSession(ExecutorType.SIMPLE, (TransactionIsolationLevel) null);
+    verify(this.manager1).commit(false);
+    verify(this.manager1).close();
+    verifyNotStarted(this.manager2);
+  }
+
+  @Test
+  void nestedCallShouldUnwrapExceptions() throws Exception {
+    InvocationContext inner = context("eager", () -> {
+      throw new InvocationTargetException(new RollbackException());
+    });
+    assertThrows(RollbackException.class,
+        () -> this.interceptor.invoke(context("lazy", () -> this.interceptor.invoke(inner))));
+  }
+
+  @Test
+  void scopedTransactionShouldOnlyStartTheSelectedSessions() throws Exception {
+    this.interceptor.invoke(context("scoped", () -> null));
+
+    verify(this.manager2).startManagedSession(ExecutorType.SIMPLE, (TransactionIsolationLevel) null);
+    verify(this.manager2).commit(false);
+    verify(this.manager2).close();
+    verifyNotStarted(this.manager1);
+  }
+
+  @Test
+  void lazyScopedTransactionShouldNotEnlistOtherSessions() throws Exception {
+    this.interceptor.invoke(context("lazyScoped", () -> {
+      TransactionContext.enlist(this.manager1);
+      TransactionContext.enlist(this.manager2);
+      return null;
+    }));
+
+    verify(this.manager2).startManagedSession(ExecutorType.SIMPLE, (TransactionIsolationLevel) null);
+    verify(this.manager2).commit(false);
+    verifyNotStarted(this.manager1);
+  }
+
+  @Test
+  void supportsShouldNotStartATransaction() throws Exception {
+    this.interceptor.invoke(context("supports", () -> {
+      assertNull(TransactionContext.current());
+      return null;
+    }));
+
+    verifyNotStarted(this.manager1);
+    verifyNotStarted(this.manager2);
+  }
+
+  @Test
+  void supportsShouldJoinTheRunningTransaction() throws Exception {
+    this.interceptor.invoke(context("lazy", () -> this.interceptor.invoke(context("supports", () -> {
+      TransactionContext.enlist(this.manager1);
+      return null;
+    }))));
+
+    verify(this.manager1).commit(false);
+  }
+
+  @Test
+  void mandatoryShouldFailWithoutTransaction() throws Exception {
+    InvocationContext ctx = context("mandatory", () -> null);
+    assertThrows(MybatisCdiTransactionException.class, () -> this.interceptor.invoke(ctx));
+    verify(ctx, never()).proceed();
+  }
+
+  @Test
+  void neverShouldFailInsideATransaction() throws Exception {
+    InvocationContext inner = context("never", () -> null);
+    assertThrows(MybatisCdiTransactionException.class,
+        () -> this.interceptor.invoke(context("lazy", () -> this.interceptor.invoke(inner))));
+    verify(inner, never()).proceed();
+  }
+
+  @Test
+  void requiresNewShouldSuspendTheRunningTransaction() throws Exception {
+    SqlSession outerSession = mock(SqlSession.class);
+    SqlSession innerSession = mock(SqlSession.class);
+    SqlSessionManager manager = realManager(outerSession, innerSession);
+
+    this.interceptor.invoke(context("lazy", () -> {
+      TransactionContext.enlist(manager);
+      TransactionContext outer = TransactionContext.current();
+      this.interceptor.invoke(context("requiresNew", () -> {
+        assertNotSame(outer, TransactionContext.current());
+        assertFalse(manager.isManagedSessionStarted());
+        TransactionContext.enlist(manager);
+        return null;
+      }));
+      assertSame(outer, TransactionContext.current());
+      return null;
+    }));
+
+    verify(innerSession).commit(false);
+    verify(innerSession).close();
+    verify(outerSession).commit(false);
+    verify(outerSession).close();
+    assertFalse(manager.isManagedSessionStarted());
+  }
+
+  @Test
+  void notSupportedShouldSuspendTheRunningTransaction() throws Exception {
+    SqlSession outerSession = mock(SqlSession.class);
+    SqlSessionManager manager = realManager(outerSession);
+
+    this.interceptor.invoke(context("lazy", () -> {
+      TransactionContext.enlist(manager);
+      this.interceptor.invoke(context("notSupported", () -> {
+        assertNull(TransactionContext.current());
+        assertFalse(manager.isManagedSessionStarted());
+        return null;
+      }));
+      assertTrue(manager.isManagedSessionStarted());
+      return null;
+    }));
+
+    verify(outerSession).commit(false);
+    verify(outerSession).close();
+  }
+
+  @Test
+  void readOnlyTransactionShouldUseTheReadReplica() throws Exception {
+    Connection connection = mock(Connection.class);
+    SqlSession replicaSession = mock(SqlSession.class);
+    when(replicaSession.getConnection()).thenReturn(connection);
+    SqlSessionManager replica = realManager(replicaSession);
+    when(this.registry.getReplica(this.manager1)).thenReturn(replica);
+    Connection alreadyReadOnly = mock(Connection.class);
+    when(alreadyReadOnly.isReadOnly()).thenReturn(true);
+    when(this.manager2.getConnection()).thenReturn(alreadyReadOnly);
+
+    this.interceptor.invoke(context("readOnly", () -> {
+      assertSame(replica, TransactionContext.enlist(this.manager1));
+      assertSame(this.manager2, TransactionContext.enlist(this.manager2));
+      return null;
+    }));
+
+    verifyNotStarted(this.manager1);
+    verify(this.manager2, never()).commit(anyBoolean());
+    verify(this.manager2).close();
+    verify(alreadyReadOnly, never()).setReadOnly(anyBoolean());
+    InOrder inOrder = inOrder(connection, replicaSession);
+    inOrder.verify(connection).setReadOnly(true);
+    inOrder.verify(connection).setReadOnly(false);
+    inOrder.verify(replicaSession).close();
+    verify(replicaSession, never()).commit(anyBoolean());
+  }
+
+  @Test
+  void enlistShouldDoNothingOutsideOfATransaction() {
+    TransactionContext.enlist(this.manager1);
+
+    verifyNotStarted(this.manager1);
+  }
+
+  @Test
+  void batchTransactionShouldFlushEveryBatchSizeCalls() throws Exception {
+    BatchResult result = mock(BatchResult.class);
+    when(this.manager1.flushStatements()).thenReturn(List.of(result));
+    List<List<BatchResult>> flushed = new ArrayList<>();
+    this.interceptor.invoke(context("batch", () -> {
+      Transactions.onBatchFlush(flushed::add);
+      for (int i = 0; i < 5; i++) {
+        TransactionContext.enlist(this.manager1);
+      }
+      return null;
+    }));
+
+    InOrder inOrder = inOrder(this.manager1);
+    inOrder.verify(this.manager1).startManagedSession(ExecutorType.BATCH, (TransactionIsolationLevel) null);
+    inOrder.verify(this.manager1, times(3)).flushStatements();
+    inOrder.verify(this.manager1).commit(false);
+    assertEquals(List.of(List.of(result), List.of(result), List.of(result)), flushed);
+  }
+
+  @Test
+  void timedTransactionShouldPassTheRemainingTimeToStatements() throws Exception {
+    StatementHandler handler = mock(StatementHandler.class);
+    Connection connection = mock(Connection.class);
+    Method prepare = StatementHandler.class.getMethod("prepare", Connection.class, Integer.class);
+    TransactionTimeoutInterceptor plugin = new TransactionTimeoutInterceptor();
+
+    this.interceptor.invoke(context("timed", () -> {
+      TransactionContext.enlist(this.manager1);
+      plugin.intercept(new Invocation(handler, prepare, new Object[] { connection, null }));
+      plugin.intercept(new Invocation(handler, prepare, new Object[] { connection, 5 }));
+      return null;
+    }));
+    plugin.intercept(new Invocation(handler, prepare, new Object[] { connection, null }));
+
+    verify(handler).prepare(connection, 30);
+    verify(handler).prepare(connection, 5);
+    verify(handler).prepare(connection, null);
+  }
+
+  @Test
+  void transactionShouldBeRetriedOnRetryableSqlStates() throws Exception {
+    List<Integer> attempts = new ArrayList<>();
+    Object result = this.interceptor.invoke(context("retried", () -> {
+      TransactionContext.enlist(this.manager1);
+      attempts.add(attempts.size() + 1);
+      if (attempts.size() < 3) {
+        throw new PersistenceException(new SQLException("deadlock detected", "40P01"));
+      }
+      return "done";
+    }));
+
+    assertEquals("done", result);
+    assertEquals(List.of(1, 2, 3), attempts);
+    verify(this.manager1, times(3)).startManagedSession(ExecutorType.SIMPLE, (TransactionIsolationLevel) null);
+    verify(this.manager1, times(2)).rollback(false);
+    verify(this.manager1).commit(false);
+    verify(this.manager1, times(3)).close();
+  }
+
+  @Test
+  void transactionShouldNotBeRetriedOnOtherFailures() throws Exception {
+    List<Integer> attempts = new ArrayList<>();
+    assertThrows(PersistenceException.class, () -> this.interceptor.invoke(context("retried", () -> {
+      TransactionContext.enlist(this.manager1);
+      attempts.add(attempts.size() + 1);
+      throw new PersistenceException(new SQLException("duplicate key", "23505"));
+    })));
+
+    assertEquals(List.of(1), attempts);
+    verify(this.manager1).rollback(false);
+  }
+
+  @Test
+  void nestedCallShouldNotBeRetried() throws Exception {
+    List<Integer> attempts = new ArrayList<>();
+    assertThrows(PersistenceException.class, () -> this.interceptor.invoke(context("lazy",
+        () -> this.interceptor.invoke(context("retried", () -> {
+          TransactionContext.enlist(this.manager1);
+          attempts.add(attempts.size() + 1);
+          throw new PersistenceException(new SQLException("could not serialize access", "40001"));
+        })))));
+
+    assertEquals(List.of(1), attempts);
+  }
+
+  @Test
+  void failingNestedTransactionShouldOnlyRollBackToItsSavepoints() throws Exception {
+    Connection connection1 = mock(Connection.class);
+    Connection connection2 = mock(Connection.class);
+    Savepoint savepoint1 = mock(Savepoint.class);
+    Savepoint savepoint2 = mock(Savepoint.class);
+    when(this.manager1.getConnection()).thenReturn(connection1);
+    when(this.manager2.getConnection()).thenReturn(connection2);
+    when(connection1.setSavepoint()).thenReturn(savepoint1);
+    when(connection2.setSavepoint()).thenReturn(savepoint2);
+
+    this.interceptor.invoke(context("lazy", () -> {
+      TransactionContext.enlist(this.manager1);
+      assertThrows(IllegalStateException.class, () -> this.interceptor.invoke(context("nested", () -> {
+        TransactionContext.enlist(this.manager2);
+        throw new IllegalStateException("bad row");
+      })));
+      return null;
+    }));
+
+    InOrder inOrder = inOrder(connection1, connection2, this.manager1, this.manager2);
+    inOrder.verify(connection1).setSavepoint();
+    inOrder.verify(connection2).setSavepoint();
+    inOrder.verify(connection1).rollback(savepoint1);
+    inOrder.verify(connection2).rollback(savepoint2);
+    inOrder.verify(this.manager1).commit(false);
+    inOrder.verify(this.manager2).commit(false);
+    verify(this.manager1, never()).rollback(anyBoolean());
+    verify(this.manager2, never()).rollback(anyBoolean());
+  }
+
+  @Test
+  void successfulNestedTransactionShouldReleaseItsSavepoints() throws Exception {
+    Connection connection = mock(Connection.class);
+    Savepoint savepoint = mock(Savepoint.class);
+    when(this.manager1.getConnection()).thenReturn(connection);
+    when(connection.setSavepoint()).thenReturn(savepoint);
+
+    this.interceptor.invoke(context("lazy", () -> {
+      TransactionContext.enlist(this.manager1);
+      return this.interceptor.invoke(context("nested", () -> null));
+    }));
+
+    verify(connection).releaseSavepoint(savepoint);
+    verify(connection, never()).rollback(savepoint);
+    verify(this.manager1).commit(false);
+  }
+
+  @Test
+  void nestedTransactionShouldStartANewOneWithoutRunningTransaction() throws Exception {
+    this.interceptor.invoke(context("nested", () -> {
+      TransactionContext.enlist(this.manager1);
+      return null;
+    }));
+
+    verify(this.manager1).startManagedSession(ExecutorType.SIMPLE, (TransactionIsolationLevel) null);
+    verify(this.manager1).commit(false);
+    verify(this.manager1, never()).getConnection();
+  }
+
+  @Test
+  void parallelCommitShouldCompleteEverySessionAndReportTheFirstFailure() throws Exception {
+    SqlSession session1 = mock(SqlSession.class);
+    SqlSession session2 = mock(SqlSession.class);
+    SqlSession session3 = mock(SqlSession.class);
+    Map<SqlSession, Thread> threads = new ConcurrentHashMap<>();
+    doAnswer(invocation -> threads.put(session1, Thread.currentThread())).when(session1).commit(false);
+    doAnswer(invocation -> {
+      threads.put(session2, Thread.currentThread());
+      throw new PersistenceException("second");
+    }).when(session2).commit(false);
+    doAnswer(invocation -> {
+      threads.put(session3, Thread.currentThread());
+      throw new PersistenceException("third");
+    }).when(session3).commit(false);
+    when(this.registry.getManagers())
+        .thenReturn(List.of(realManager(session1), realManager(session2), realManager(session3)));
+
+    PersistenceException failure = assertThrows(PersistenceException.class,
+        () -> this.interceptor.invoke(context("parallel", () -> null)));
+
+    assertEquals("second", failure.getMessage());
+    assertEquals("third", failure.getSuppressed()[0].getMessage());
+    assertSame(Thread.currentThread(), threads.get(session1));
+    assertNotSame(Thread.currentThread(), threads.get(session2));
+    assertNotSame(Thread.currentThread(), threads.get(session3));
+    verify(session1).close();
+    verify(session2).close();
+    verify(session3).close();
+  }
+
+  @Test
+  void parallelCommitShouldCreateANewPoolAfterShutdown() throws Exception {
+    SqlSession session1 = mock(SqlSession.class);
+    SqlSession session2 = mock(SqlSession.class);
+    Map<SqlSession, Thread> threads = new ConcurrentHashMap<>();
+    doAnswer(invocation -> threads.put(session2, Thread.currentThread())).when(session2).commit(false);
+    when(this.registry.getManagers()).thenReturn(List.of(realManager(session1), realManager(session2)));
+    ParallelCompletion.shutdown();
+
+    this.interceptor.invoke(context("parallel", () -> null));
+
+    verify(session1).commit(false);
+    assertNotSame(Thread.currentThread(), threads.get(session2));
+    verify(session1).close();
+    verify(session2).close();
+  }
+
+  @Test
+  void parallelCommitShouldCompleteOnTheCallingThreadWhenNoThreadIsIdle() throws Exception {
+    SqlSession session1 = mock(SqlSession.class);
+    SqlSession session2 = mock(SqlSession.class);
+    SqlSession session3 = mock(SqlSession.class);
+    CountDownLatch thirdCommitted = new CountDownLatch(1);
+    Map<SqlSession, Thread> threads = new ConcurrentHashMap<>();
+    doAnswer(invocation -> {
+      threads.put(session2, Thread.currentThread());
+      return thirdCommitted.await(5, TimeUnit.SECONDS);
+    }).when(session2).commit(false);
+    doAnswer(invocation -> {
+      threads.put(session3, Thread.currentThread());
+      thirdCommitted.countDown();
+      return null;
+    }).when(session3).commit(false);
+    when(this.registry.getManagers())
+        .thenReturn(List.of(realManager(session1), realManager(session2), realManager(session3)));
+    ParallelCompletion.shutdown();
+    System.setProperty(LocalTransactionInterceptor.PARALLEL_COMMIT_THREADS_PROPERTY, "1");
+    try {
+      this.interceptor.invoke(context("parallel", () -> null));
+    } finally {
+      System.clearProperty(LocalTransactionInterceptor.PARALLEL_COMMIT_THREADS_PROPERTY);
+      ParallelCompletion.shutdown();
+    }
+
+    assertNotSame(Thread.currentThread(), threads.get(session2));
+    assertSame(Thread.currentThread(), threads.get(session3));
+    verify(session1).commit(false);
+    verify(session3).close();
+  }
+
+  @Test
+  void blockShouldRunWithAnotherExecutorOnTheSameConnection() throws Exception {
+    SqlSession session = mock(SqlSession.class);
+    SqlSession batchSession = mock(SqlSession.class);
+    Connection connection = mock(Connection.class);
+    when(session.getConnection()).thenReturn(connection);
+    when(batchSession.insert("write")).thenReturn(3);
+    SqlSessionFactory factory = mock(SqlSessionFactory.class);
+    when(factory.openSession(ExecutorType.SIMPLE, (TransactionIsolationLevel) null)).thenReturn(session);
+    when(factory.openSession(eq(ExecutorType.BATCH), any(Connection.class))).thenReturn(batchSession);
+    SqlSessionManager manager = SqlSessionManager.newInstance(factory);
+    when(this.registry.getManagers()).thenReturn(List.of(manager));
+
+    this.interceptor.invoke(context("eager", () -> {
+      manager.selectList("read");
+      assertEquals(3, Transactions.withExecutor(ExecutorType.BATCH, () -> manager.insert("write")));
+      manager.selectList("read");
+      return null;
+    }));
+
+    InOrder inOrder = inOrder(session, batchSession);
+    inOrder.verify(session).selectList("read");
+    inOrder.verify(batchSession).insert("write");
+    inOrder.verify(batchSession).flushStatements();
+    inOrder.verify(session).clearCache();
+    inOrder.verify(batchSession).close();
+    inOrder.verify(session).selectList("read");
+    inOrder.verify(session).commit(false);
+    inOrder.verify(session).close();
+
+    ArgumentCaptor<Connection> borrowed = ArgumentCaptor.forClass(Connection.class);
+    verify(factory).openSession(eq(ExecutorType.BATCH), borrowed.capture());
+    borrowed.getValue().prepareStatement("insert");
+    borrowed.getValue().setAutoCommit(true);
+    borrowed.getValue().rollback();
+    borrowed.getValue().close();
+    verify(connection).prepareStatement("insert");
+    verify(connection, never()).setAutoCommit(anyBoolean());
+    verify(connection, never()).rollback();
+    verify(connection, never()).close();
+  }
+
+  @Test
+  void blockShouldRunAfterTheStatementsBatchedBeforeIt() throws Exception {
+    SqlSession session = mock(SqlSession.class);
+    SqlSession simpleSession = mock(SqlSession.class);
+    SqlSessionFactory factory = mock(SqlSessionFactory.class);
+    when(factory.openSession(ExecutorType.BATCH, (TransactionIsolationLevel) null)).thenReturn(session);
+    when(factory.openSession(eq(ExecutorType.SIMPLE), nullable(Connection.class))).thenReturn(simpleSession);
+    SqlSessionManager manager = SqlSessionManager.newInstance(factory);
+
+    this.interceptor.invoke(context("batch", () -> {
+      TransactionContext.enlist(manager);
+      manager.insert("before");
+      return Transactions.withExecutor(ExecutorType.SIMPLE, () -> manager.selectList("read"));
+    }));
+
+    InOrder inOrder = inOrder(session, simpleSession);
+    inOrder.verify(session).insert("before");
+    inOrder.verify(session).flushStatements();
+    inOrder.verify(simpleSession).selectList("read");
+  }
+
+  @Test
+  void failingBlockShouldCloseItsSessionsAndRestoreTheOriginals() throws Exception {
+    SqlSession session = mock(SqlSession.class);
+    SqlSession batchSession = mock(SqlSession.class);
+    SqlSessionFactory factory = mock(SqlSessionFactory.class);
+    when(factory.openSession(ExecutorType.SIMPLE, (TransactionIsolationLevel) null)).thenReturn(session);
+    when(factory.openSession(eq(ExecutorType.BATCH), nullable(Connection.class))).thenReturn(batchSession);
+    SqlSessionManager manager = SqlSessionManager.newInstance(factory);
+    when(this.registry.getManagers()).thenReturn(List.of(manager));
+
+    this.interceptor.invoke(context("eager", () -> {
+      assertThrows(IllegalStateException.class, () -> Transactions.withExecutor(ExecutorType.BATCH, () -> {
+        manager.insert("write");
+        throw new IllegalStateException("fail");
+      }));
+      manager.selectList("read");
+      return null;
+    }));
+
+    verify(batchSession, never()).flushStatements();
+    verify(batchSession).close();
+    verify(session).selectList("read");
+    verify(session).commit(false);
+  }
+
+  @Test
+  void lazyTransactionShouldBeginJtaBeforeTheFirstSession() throws Exception {
+    List<String> calls = new ArrayList<>();
+    LocalTransactionInterceptor jta = jtaInterceptor(calls);
+    doAnswer(invocation -> calls.add("start")).when(this.manager1).startManagedSession(any(ExecutorType.class),
+        nullable(TransactionIsolationLevel.class));
+
+    jta.invoke(context("lazy", () -> {
+      calls.add("proceed");
+      TransactionContext.enlist(this.manager1);
+      return null;
+    }));
+
+    assertEquals(List.of("proceed", "begin", "start", "end"), calls);
+  }
+
+  @Test
+  void lazyTransactionWithoutSessionShouldNotBeginJta() throws Exception {
+    List<String> calls = new ArrayList<>();
+    jtaInterceptor(calls).invoke(context("lazy", () -> null));
+
+    assertEquals(List.of(), calls);
+  }
+
+  @Test
+  void synchronizedSessionsShouldCompleteWithTheJtaTransaction() throws Exception {
+    SqlSession session = mock(SqlSession.class);
+    SqlSessionManager manager = realManager(session);
+    when(this.registry.getManagers()).thenReturn(List.of(manager));
+    Map<Object, Object> resources = new HashMap<>();
+    TransactionSynchronizationRegistry synchronizations = mock(TransactionSynchronizationRegistry.class);
+    when(synchronizations.getResource(any())).thenAnswer(invocation -> resources.get(invocation.getArgument(0)));
+    doAnswer(invocation -> resources.put(invocation.getArgument(0), invocation.getArgument(1)))
+        .when(synchronizations).putResource(any(), any());
+    LocalTransactionInterceptor synchronizing = new LocalTransactionInterceptor() {
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected boolean isTransactionActive() {
+        return true;
+      }
+
+      @Override
+      protected TransactionSynchronizationRegistry getSynchronizationRegistry() {
+        return synchronizations;
+      }
+    };
+    Field field = LocalTransactionInterceptor.class.getDeclaredField("registry");
+    field.setAccessible(true);
+    field.set(synchronizing, this.registry);
+
+    Callable<Object> body = () -> {
+      TransactionContext.enlist(manager);
+      return null;
+    };
+    synchronizing.invoke(context("lazy", body));
+    assertFalse(manager.isManagedSessionStarted());
+    synchronizing.invoke(context("lazy", body));
+    assertFalse(manager.isManagedSessionStarted());
+    verify(session, never()).commit(anyBoolean());
+    verify(session, never()).close();
+
+    ArgumentCaptor<Synchronization> synchronization = ArgumentCaptor.forClass(Synchronization.class);
+    verify(synchronizations).registerInterposedSynchronization(synchronization.capture());
+    synchronization.getValue().beforeCompletion();
+    synchronization.getValue().afterCompletion(Status.STATUS_COMMITTED);
+    verify(session).commit(false);
+    verify(session).close();
+  }
+
+  private LocalTransactionInterceptor jtaInterceptor(List<String> calls) throws Exception {
+    LocalTransactionInterceptor jta = new LocalTransactionInterceptor() {
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected void beginJta() {
+        calls.add("begin");
+      }
+
+      @Override
+      protected void endJta(boolean isExternaTransaction, boolean commit) {
+        calls.add("end");
+      }
+    };
+    Field field = LocalTransactionInterceptor.class.getDeclaredField("registry");
+    field.setAccessible(true);
+    field.set(jta, this.registry);
+    return jta;
+  }
+
+  @Test
+  void transactionsShouldRequireARunningTransaction() {
+    assertThrows(MybatisCdiTransactionException.class, Transactions::flushStatements);
+  }
+
+  private static void verifyNotStarted(SqlSessionManager manager) {
+    verify(manager, never()).startManagedSession(any(ExecutorType.class), nullable(TransactionIsolationLevel.class));
+  }
+
+  private static SqlSessionManager realManager(SqlSession session, SqlSession... sessions) {
+    SqlSessionFactory factory = mock(SqlSessionFactory.class);
+    when(factory.openSession(any(ExecutorType.class), nullable(TransactionIsolationLevel.class))).thenReturn(session,
+        sessions);
+    return SqlSessionManager.newInstance(factory);
+  }
+
+  private InvocationContext context(String methodName, Callable<Object> body) throws Exception {
+    InvocationContext ctx = mock(InvocationContext.class);
+    when(ctx.getMethod()).thenReturn(SampleService.class.getMethod(methodName));
+    when(ctx.proceed()).thenAnswer(invocation -> body.call());
+    return ctx;
+  }
+
+}
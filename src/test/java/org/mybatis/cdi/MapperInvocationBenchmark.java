@@ -0,0 +1,87 @@
+/*
+ *    Copyright 2013-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.cdi;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares the reflective mapper dispatch used before by {@link SerializableMapperProxy} with the cached
+ * {@code MethodHandle} path of {@link MapperMethodInvoker}.
+ * <p>
+ * Run with {@code mvn -Pbenchmark test-compile exec:exec -Dbenchmark=MapperInvocationBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapperInvocationBenchmark {
+
+  private UserMapper mapper;
+
+  private Method getUser;
+
+  private Object[] args;
+
+  @Setup
+  public void setup() throws NoSuchMethodException {
+    User user = new User();
+    user.setId(1);
+    user.setName("User1");
+    this.mapper = new UserMapper() {
+      @Override
+      public User getUser(Integer id) {
+        return user;
+      }
+
+      @Override
+      public void insertUser(User user) {
+        // nothing to do
+      }
+    };
+    this.getUser = UserMapper.class.getMethod("getUser", Integer.class);
+    this.args = new Object[] { 1 };
+  }
+
+  @Benchmark
+  public Object reflection() throws Throwable {
+    try {
+      return this.getUser.invoke(this.mapper, this.args);
+    } catch (InvocationTargetException e) {
+      throw e.getTargetException();
+    }
+  }
+
+  @Benchmark
+  public Object methodHandle() throws Throwable {
+    return MapperMethodInvoker.invoke(this.mapper, this.getUser, this.args);
+  }
+
+}
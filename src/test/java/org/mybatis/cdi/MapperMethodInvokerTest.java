@@ -0,0 +1,78 @@
+/*
+ *    Copyright 2013-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.cdi;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.lang.reflect.Method;
+
+import org.junit.jupiter.api.Test;
+
+class MapperMethodInvokerTest {
+
+  interface SampleMapper {
+    String echo(String value, int times);
+
+    long count();
+
+    void fail(String message) throws NoRollbackException;
+  }
+
+  static class SampleMapperImpl implements SampleMapper {
+    @Override
+    public String echo(String value, int times) {
+      return value.repeat(times);
+    }
+
+    @Override
+    public long count() {
+      return 42L;
+    }
+
+    @Override
+    public void fail(String message) throws NoRollbackException {
+      throw new NoRollbackException();
+    }
+  }
+
+  @Test
+  void shouldInvokeMethodWithArguments() throws Throwable {
+    Method method = SampleMapper.class.getMethod("echo", String.class, int.class);
+    assertEquals("abab", MapperMethodInvoker.invoke(new SampleMapperImpl(), method, new Object[] { "ab", 2 }));
+  }
+
+  @Test
+  void shouldInvokeMethodWithoutArguments() throws Throwable {
+    Method method = SampleMapper.class.getMethod("count");
+    assertEquals(42L, MapperMethodInvoker.invoke(new SampleMapperImpl(), method, null));
+  }
+
+  @Test
+  void shouldPropagateCheckedExceptionsUnwrapped() throws Exception {
+    Method method = SampleMapper.class.getMethod("fail", String.class);
+    assertThrows(NoRollbackException.class,
+        () -> MapperMethodInvoker.invoke(new SampleMapperImpl(), method, new Object[] { "boom" }));
+  }
+
+  @Test
+  void shouldResolveEachMethodOnlyOnce() throws Exception {
+    Method method = SampleMapper.class.getMethod("count");
+    assertSame(MapperMethodInvoker.getHandle(method), MapperMethodInvoker.getHandle(method));
+  }
+
+}
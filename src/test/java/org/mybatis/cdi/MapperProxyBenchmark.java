@@ -0,0 +1,82 @@
+/*
+ *    Copyright 2013-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.cdi;
+
+import jakarta.enterprise.inject.literal.NamedLiteral;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares a mapper taken straight from the {@code SqlSessionManager} with the mapper injected by MyBatis CDI, both
+ * running a query on the H2 database of {@code manager1}.
+ * <p>
+ * Run with {@code mvn -Pbenchmark test-compile exec:exec -Dbenchmark=MapperProxyBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapperProxyBenchmark {
+
+  private UserMapper rawMapper;
+
+  private UserMapper proxiedMapper;
+
+  @Setup
+  public void setup(WeldBenchmarkState weld) {
+    SqlSessionFactory factory = weld.select(SqlSessionFactory.class, NamedLiteral.of("manager1"));
+    this.rawMapper = weld.select(SqlSessionManagerRegistry.class).getManager(factory).getMapper(UserMapper.class);
+    this.proxiedMapper = weld.select(UserMapper.class, NamedLiteral.of("manager1"));
+  }
+
+  @Benchmark
+  public User rawMapper() {
+    return this.rawMapper.getUser(1);
+  }
+
+  @Benchmark
+  public User proxiedMapper() {
+    return this.proxiedMapper.getUser(1);
+  }
+
+  @Benchmark
+  @Threads(4)
+  public User rawMapper4Threads() {
+    return this.rawMapper.getUser(1);
+  }
+
+  @Benchmark
+  @Threads(4)
+  public User proxiedMapper4Threads() {
+    return this.proxiedMapper.getUser(1);
+  }
+
+}
@@ -0,0 +1,126 @@
+/*
+ *    Copyright 2013-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.cdi;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.RETURNS_SELF;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.context.Dependent;
+import jakarta.enterprise.context.NormalScope;
+import jakarta.enterprise.inject.build.compatible.spi.BeanInfo;
+import jakarta.enterprise.inject.build.compatible.spi.InjectionPointInfo;
+import jakarta.enterprise.inject.build.compatible.spi.Messages;
+import jakarta.enterprise.inject.build.compatible.spi.SyntheticBeanBuilder;
+import jakarta.enterprise.inject.build.compatible.spi.SyntheticComponents;
+import jakarta.enterprise.lang.model.AnnotationInfo;
+import jakarta.enterprise.lang.model.declarations.ClassInfo;
+import jakarta.enterprise.lang.model.types.ClassType;
+import jakarta.enterprise.lang.model.types.Type;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class MybatisBuildCompatibleExtensionTest {
+
+  @SuppressWarnings("unchecked")
+  @Test
+  void injectedMappersShouldBeSynthesized() {
+    MybatisBuildCompatibleExtension extension = new MybatisBuildCompatibleExtension();
+
+    extension.collectMapper(mapperType());
+    extension.collectInjectionPoints(beanInjecting(UserMapper.class), mock(Messages.class));
+
+    SyntheticComponents components = mock(SyntheticComponents.class);
+    SyntheticBeanBuilder<Object> builder = mock(SyntheticBeanBuilder.class, RETURNS_SELF);
+    when(components.addBean((Class<Object>) (Class<?>) UserMapper.class)).thenReturn(builder);
+    extension.registerBeans(components);
+
+    verify(builder).scope(Dependent.class);
+    verify(builder).createWith(MybatisBuildCompatibleExtension.MapperCreator.class);
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  void mappersAnnotatedWithANormalScopeShouldBeSynthesizedInThatScope() {
+    MybatisBuildCompatibleExtension extension = new MybatisBuildCompatibleExtension();
+
+    AnnotationInfo scope = mock(AnnotationInfo.class);
+    ClassInfo scopeType = mock(ClassInfo.class);
+    when(scope.declaration()).thenReturn(scopeType);
+    when(scopeType.hasAnnotation(NormalScope.class)).thenReturn(true);
+    when(scopeType.name()).thenReturn(ApplicationScoped.class.getName());
+
+    extension.collectMapper(mapperType(scope));
+    extension.collectInjectionPoints(beanInjecting(UserMapper.class), mock(Messages.class));
+
+    SyntheticComponents components = mock(SyntheticComponents.class);
+    SyntheticBeanBuilder<Object> builder = mock(SyntheticBeanBuilder.class, RETURNS_SELF);
+    when(components.addBean((Class<Object>) (Class<?>) UserMapper.class)).thenReturn(builder);
+    extension.registerBeans(components);
+
+    verify(builder).scope(ApplicationScoped.class);
+  }
+
+  @Test
+  void mappersWithoutInjectionPointShouldNotBeSynthesized() {
+    MybatisBuildCompatibleExtension extension = new MybatisBuildCompatibleExtension();
+
+    extension.collectMapper(mapperType());
+
+    SyntheticComponents components = mock(SyntheticComponents.class);
+    extension.registerBeans(components);
+
+    verify(components, never()).addBean(any());
+  }
+
+  private ClassInfo mapperType(AnnotationInfo... annotations) {
+    ClassInfo type = mock(ClassInfo.class);
+    when(type.isInterface()).thenReturn(true);
+    when(type.hasAnnotation(Mapper.class)).thenReturn(true);
+    when(type.simpleName()).thenReturn(UserMapper.class.getSimpleName());
+    when(type.name()).thenReturn(UserMapper.class.getName());
+    when(type.annotations()).thenReturn(List.of(annotations));
+    return type;
+  }
+
+  private BeanInfo beanInjecting(Class<?> injected) {
+    ClassInfo declaration = mock(ClassInfo.class);
+    when(declaration.name()).thenReturn(injected.getName());
+    ClassType classType = mock(ClassType.class);
+    when(classType.declaration()).thenReturn(declaration);
+    Type type = mock(Type.class);
+    when(type.isClass()).thenReturn(true);
+    when(type.asClass()).thenReturn(classType);
+
+    InjectionPointInfo injectionPoint = mock(InjectionPointInfo.class);
+    when(injectionPoint.type()).thenReturn(type);
+    when(injectionPoint.qualifiers()).thenReturn(List.of());
+
+    BeanInfo bean = mock(BeanInfo.class);
+    when(bean.injectionPoints()).thenReturn(List.of(injectionPoint));
+    return bean;
+  }
+
+}
@@ -0,0 +1,61 @@
+/*
+ *    Copyright 2013-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.cdi;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+
+import jakarta.inject.Inject;
+
+import org.apache.ibatis.session.SqlSessionManager;
+import org.jboss.weld.bootstrap.spi.BeanDiscoveryMode;
+import org.jboss.weld.environment.se.Weld;
+import org.jboss.weld.junit5.EnableWeld;
+import org.jboss.weld.junit5.WeldInitiator;
+import org.jboss.weld.junit5.WeldSetup;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+
+/**
+ * Boots Weld with the build compatible extension only, so the mapper and SqlSession beans are the synthetic beans
+ * created by {@link MybatisBuildCompatibleExtension.MapperCreator}.
+ */
+@TestInstance(Lifecycle.PER_CLASS)
+@EnableWeld
+class MybatisBuildCompatibleExtensionWeldTest {
+
+  // discovery is disabled so the portable extension is not loaded
+  @WeldSetup
+  public WeldInitiator weld = WeldInitiator.of(new Weld().disableDiscovery().setBeanDiscoveryMode(BeanDiscoveryMode.ALL)
+      .addBeanClasses(ManagerProducers.class, SqlSessionManagerRegistry.class, LiteUserService.class, UserMapper.class)
+      .addBuildCompatibleExtension(MybatisBuildCompatibleExtension.class));
+
+  @Inject
+  private LiteUserService service;
+
+  @Test
+  void shouldInjectSynthesizedMapperAndSqlSession() {
+    User user = new User();
+    user.setId(300);
+    user.setName("Lite User");
+    this.service.insertUser(user);
+
+    assertEquals("Lite User", this.service.getUserFromSqlSession(300).getName());
+    assertInstanceOf(SqlSessionManager.class, this.service.getSqlSession());
+  }
+
+}
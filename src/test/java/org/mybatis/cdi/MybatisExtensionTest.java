@@ -15,11 +15,18 @@
  */
 package org.mybatis.cdi;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
 import jakarta.enterprise.inject.spi.AfterBeanDiscovery;
 import jakarta.enterprise.inject.spi.Annotated;
 import jakarta.enterprise.inject.spi.AnnotatedType;
@@ -28,13 +35,24 @@ import jakarta.enterprise.inject.spi.InjectionPoint;
 import jakarta.enterprise.inject.spi.InjectionTarget;
 import jakarta.enterprise.inject.spi.ProcessAnnotatedType;
 import jakarta.enterprise.inject.spi.ProcessInjectionTarget;
+import jakarta.inject.Named;
 
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Field;
 import java.lang.reflect.Type;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 @ExtendWith(MockitoExtension.class)
@@ -42,15 +60,15 @@ class MybatisExtensionTest {
 
   @SuppressWarnings("unchecked")
   @Test
-  void mappersFoundAfterTheBeanUsingTheMapperInAnInjectionPointHasBeenScannedShouldBeInstantiated() throws Exception {
+  void mappersFoundBeforeTheBeanUsingTheMapperInAnInjectionPointIsScannedShouldBeInstantiated() throws Exception {
 
     MybatisExtension extension = new MybatisExtension();
     Type type = UserMapper.class;
 
-    projectInjectionTarget(extension, type);
-
     processAnnotatedType(extension, type);
 
+    projectInjectionTarget(extension, type);
+
     AfterBeanDiscovery afterBeanDiscovery = mock(AfterBeanDiscovery.class);
     extension.afterBeanDiscovery(afterBeanDiscovery);
 
@@ -58,6 +76,72 @@ class MybatisExtensionTest {
 
   }
 
+  @SuppressWarnings("unchecked")
+  @Test
+  void mappersAnnotatedWithANormalScopeShouldBeRegisteredInThatScope() throws Exception {
+
+    MybatisExtension extension = new MybatisExtension();
+    Type type = UserMapper.class;
+
+    processAnnotatedType(extension, type, ApplicationScoped.Literal.INSTANCE);
+
+    projectInjectionTarget(extension, type);
+
+    AfterBeanDiscovery afterBeanDiscovery = mock(AfterBeanDiscovery.class);
+    extension.afterBeanDiscovery(afterBeanDiscovery);
+
+    ArgumentCaptor<Bean<?>> bean = ArgumentCaptor.forClass(Bean.class);
+    verify(afterBeanDiscovery).addBean(bean.capture());
+    assertEquals(ApplicationScoped.class, bean.getValue().getScope());
+
+  }
+
+  @Test
+  void injectionPointsOfOtherTypesShouldNotBeRetained() throws Exception {
+
+    MybatisExtension extension = new MybatisExtension();
+
+    processAnnotatedType(extension, UserMapper.class);
+
+    projectInjectionTarget(extension, Event.class);
+
+    Field field = MybatisExtension.class.getDeclaredField("injectionPoints");
+    field.setAccessible(true);
+    assertTrue(((Map<?, ?>) field.get(extension)).isEmpty());
+
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  void indexedMappersShouldBeRegisteredWithoutScanningTheirInjectionPoints(@TempDir Path classes) throws Exception {
+    Path index = classes.resolve(MapperIndex.RESOURCE);
+    Files.createDirectories(index.getParent());
+    Files.writeString(index, String.join("\n", "mapper\torg.mybatis.cdi.UserMapper",
+        "target\torg.mybatis.cdi.FooService", "inject\torg.mybatis.cdi.UserMapper\tjakarta.inject.Named=manager1",
+        "inject\torg.mybatis.cdi.UserMapper\torg.mybatis.cdi.OtherQualifier"));
+
+    MybatisExtension extension;
+    try (URLClassLoader classLoader = new URLClassLoader(new URL[] { classes.toUri().toURL() },
+        getClass().getClassLoader())) {
+      extension = new MybatisExtension(MapperIndex.load(classLoader));
+    }
+
+    ProcessInjectionTarget<FooService> event = mock(ProcessInjectionTarget.class);
+    AnnotatedType<FooService> annotatedType = mock(AnnotatedType.class);
+    when(event.getAnnotatedType()).thenReturn(annotatedType);
+    when(annotatedType.getJavaClass()).thenReturn(FooService.class);
+    extension.processInjectionTarget(event);
+    verify(event, never()).getInjectionTarget();
+
+    AfterBeanDiscovery afterBeanDiscovery = mock(AfterBeanDiscovery.class);
+    extension.afterBeanDiscovery(afterBeanDiscovery);
+
+    ArgumentCaptor<Bean<?>> bean = ArgumentCaptor.forClass(Bean.class);
+    verify(afterBeanDiscovery, times(2)).addBean(bean.capture());
+    assertEquals(Set.of(Named.class, OtherQualifier.class), bean.getAllValues().stream()
+        .map(b -> b.getQualifiers().iterator().next().annotationType()).collect(Collectors.toSet()));
+  }
+
   private <T> void projectInjectionTarget(MybatisExtension extension, Type type) {
     ProcessInjectionTarget<T> event = mock(ProcessInjectionTarget.class);
     InjectionTarget<T> injectTarget = mock(InjectionTarget.class);
@@ -69,7 +153,8 @@ class MybatisExtensionTest {
     when(injectionPoint.getAnnotated()).thenReturn(annotated);
 
     when(annotated.getBaseType()).thenReturn(type);
-    when(annotated.getAnnotations()).thenReturn(new HashSet<>());
+    // not read for the injection points that are dropped
+    lenient().when(annotated.getAnnotations()).thenReturn(new HashSet<>());
 
     injectionPoints.add(injectionPoint);
 
@@ -80,11 +165,12 @@ class MybatisExtensionTest {
   }
 
   @SuppressWarnings("unchecked")
-  private <T> void processAnnotatedType(MybatisExtension extension, Type type) {
+  private <T> void processAnnotatedType(MybatisExtension extension, Type type, Annotation... annotations) {
     ProcessAnnotatedType<T> pat = mock(ProcessAnnotatedType.class);
     AnnotatedType<T> annotatedType = mock(AnnotatedType.class);
 
     when(annotatedType.isAnnotationPresent(Mapper.class)).thenReturn(true);
+    when(annotatedType.getAnnotations()).thenReturn(Set.of(annotations));
     when(pat.getAnnotatedType()).thenReturn(annotatedType);
     when(annotatedType.getBaseType()).thenReturn(type);
     when(annotatedType.getJavaClass()).thenReturn((Class<T>) UserMapper.class);
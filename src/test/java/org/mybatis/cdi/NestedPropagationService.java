@@ -0,0 +1,46 @@
+/*
+ *    Copyright 2013-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.cdi;
+
+import jakarta.inject.Inject;
+import jakarta.inject.Named;
+
+/**
+ * Transactional methods called by {@link PropagationService} inside its transactions.
+ */
+public class NestedPropagationService {
+
+  @Inject
+  @Named("manager1")
+  private UserMapper userMapper;
+
+  @Transactional(propagation = Propagation.REQUIRES_NEW)
+  public void insertInNewTransaction(User user) {
+    this.userMapper.insertUser(user);
+  }
+
+  @Transactional(propagation = Propagation.NOT_SUPPORTED)
+  public void insertWithoutTransaction(User user) {
+    this.userMapper.insertUser(user);
+  }
+
+  @Transactional(propagation = Propagation.NESTED)
+  public void insertAndFailNested(User user) {
+    this.userMapper.insertUser(user);
+    throw new RuntimeException("fail");
+  }
+
+}
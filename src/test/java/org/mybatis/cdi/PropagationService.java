@@ -0,0 +1,96 @@
+/*
+ *    Copyright 2013-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.cdi;
+
+import jakarta.inject.Inject;
+import jakarta.inject.Named;
+
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.ibatis.exceptions.PersistenceException;
+import org.apache.ibatis.session.ExecutorType;
+
+/**
+ * Transactional methods on {@code manager1} calling {@link NestedPropagationService}, to check the propagations against
+ * real sessions.
+ */
+public class PropagationService {
+
+  @Inject
+  @Named("manager1")
+  private UserMapper userMapper;
+
+  @Inject
+  private NestedPropagationService nested;
+
+  private final AtomicInteger attempts = new AtomicInteger();
+
+  @Transactional
+  public void insertAndRequireNew(User outer, User inner) {
+    this.userMapper.insertUser(outer);
+    this.nested.insertInNewTransaction(inner);
+    throw new RuntimeException("fail");
+  }
+
+  @Transactional
+  public void insertAndRunWithoutTransaction(User outer, User inner) {
+    this.userMapper.insertUser(outer);
+    this.nested.insertWithoutTransaction(inner);
+    throw new RuntimeException("fail");
+  }
+
+  @Transactional
+  public void insertAndFailNested(User before, User nested, User after) {
+    this.userMapper.insertUser(before);
+    try {
+      this.nested.insertAndFailNested(nested);
+    } catch (RuntimeException e) {
+      // the nested transaction is rolled back, this one goes on
+    }
+    this.userMapper.insertUser(after);
+  }
+
+  @Transactional(retryAttempts = 2, retryBackoff = 1)
+  public int insertAndFailTheFirstAttempt(User user) {
+    this.userMapper.insertUser(user);
+    if (this.attempts.incrementAndGet() == 1) {
+      throw new PersistenceException(new SQLException("could not serialize access", "40001"));
+    }
+    return this.attempts.get();
+  }
+
+  @Transactional
+  public User insertInBatchAndRead(User first, User second) {
+    this.userMapper.insertUser(first);
+    Transactions.withExecutor(ExecutorType.BATCH, () -> {
+      this.userMapper.insertUser(second);
+      return null;
+    });
+    return this.userMapper.getUser(second.getId());
+  }
+
+  @Transactional(executorType = ExecutorType.BATCH)
+  public User insertInBatchAndReadInBlock(User user) {
+    this.userMapper.insertUser(user);
+    return Transactions.withExecutor(ExecutorType.SIMPLE, () -> this.userMapper.getUser(user.getId()));
+  }
+
+  public User getUser(int id) {
+    return this.userMapper.getUser(id);
+  }
+
+}
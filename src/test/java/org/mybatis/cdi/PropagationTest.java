@@ -0,0 +1,124 @@
+/*
+ *    Copyright 2013-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.cdi;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import jakarta.inject.Inject;
+
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionManager;
+import org.jboss.weld.environment.se.Weld;
+import org.jboss.weld.junit5.EnableWeld;
+import org.jboss.weld.junit5.WeldInitiator;
+import org.jboss.weld.junit5.WeldSetup;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.TestInstance.Lifecycle;
+
+/**
+ * Runs the propagations that detach and attach managed sessions against the H2 database of {@code manager1}, which
+ * checks that {@link ManagedSessions} works with the MyBatis version in use.
+ */
+@TestInstance(Lifecycle.PER_CLASS)
+@EnableWeld
+class PropagationTest {
+
+  @WeldSetup
+  public WeldInitiator weld = WeldInitiator.of(new Weld());
+
+  @Inject
+  private PropagationService service;
+
+  @Inject
+  private SqlSessionManagerRegistry registry;
+
+  @Test
+  void managedSessionsShouldDetachAndAttachTheSessionOfAManager() {
+    SqlSessionManager manager = this.registry.getManager("manager1");
+    manager.startManagedSession();
+    try {
+      SqlSession session = ManagedSessions.detach(manager);
+      assertNotNull(session);
+      assertFalse(manager.isManagedSessionStarted());
+      ManagedSessions.attach(manager, session);
+      assertTrue(manager.isManagedSessionStarted());
+      assertSame(session, ManagedSessions.get(manager));
+    } finally {
+      manager.close();
+    }
+  }
+
+  @Test
+  void requiresNewShouldCommitWhenTheOuterTransactionRollsBack() {
+    assertThrows(RuntimeException.class, () -> this.service.insertAndRequireNew(user(200), user(201)));
+
+    assertNull(this.service.getUser(200));
+    assertNotNull(this.service.getUser(201));
+  }
+
+  @Test
+  void notSupportedShouldWriteOutsideOfTheOuterTransaction() {
+    assertThrows(RuntimeException.class, () -> this.service.insertAndRunWithoutTransaction(user(210), user(211)));
+
+    assertNull(this.service.getUser(210));
+    assertNotNull(this.service.getUser(211));
+  }
+
+  @Test
+  void failedNestedTransactionShouldOnlyRollBackToItsSavepoint() {
+    this.service.insertAndFailNested(user(220), user(221), user(222));
+
+    assertNotNull(this.service.getUser(220));
+    assertNull(this.service.getUser(221));
+    assertNotNull(this.service.getUser(222));
+  }
+
+  @Test
+  void retriedTransactionShouldRollBackTheFailedAttempt() {
+    assertEquals(2, this.service.insertAndFailTheFirstAttempt(user(230)));
+
+    // a second row would make selectOne fail
+    assertNotNull(this.service.getUser(230));
+  }
+
+  @Test
+  void blockWithAnotherExecutorShouldRunInTheTransaction() {
+    assertNotNull(this.service.insertInBatchAndRead(user(240), user(241)));
+
+    assertNotNull(this.service.getUser(240));
+    assertNotNull(this.service.getUser(241));
+  }
+
+  @Test
+  void blockWithAnotherExecutorShouldSeeTheStatementsBatchedBeforeIt() {
+    assertNotNull(this.service.insertInBatchAndReadInBlock(user(250)));
+  }
+
+  private static User user(int id) {
+    User user = new User();
+    user.setId(id);
+    user.setName("User" + id);
+    return user;
+  }
+
+}
@@ -0,0 +1,282 @@
+/*
+ *    Copyright 2013-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.cdi;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import jakarta.enterprise.inject.Instance;
+import jakarta.enterprise.inject.literal.NamedLiteral;
+import jakarta.enterprise.inject.spi.Bean;
+import jakarta.enterprise.util.AnnotationLiteral;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Field;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class SqlSessionManagerRegistryTest {
+
+  static class ReadReplicaLiteral extends AnnotationLiteral<ReadReplica> implements ReadReplica {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String value;
+
+    ReadReplicaLiteral(String value) {
+      this.value = value;
+    }
+
+    @Override
+    public String value() {
+      return this.value;
+    }
+
+  }
+
+  private static final Annotation MY_SPECIAL_MANAGER = new AnnotationLiteral<MySpecialManager>() {
+    private static final long serialVersionUID = 1L;
+  };
+
+  private static final Annotation OTHER_QUALIFIER = new AnnotationLiteral<OtherQualifier>() {
+    private static final long serialVersionUID = 1L;
+  };
+
+  private final SqlSessionFactory factory1 = mock(SqlSessionFactory.class);
+
+  private final SqlSessionFactory factory2 = mock(SqlSessionFactory.class);
+
+  private final SqlSessionFactory factory3 = mock(SqlSessionFactory.class);
+
+  private final SqlSessionFactory replica1 = mock(SqlSessionFactory.class);
+
+  private final SqlSessionManagerRegistry registry = new SqlSessionManagerRegistry();
+
+  @BeforeEach
+  void setup() throws Exception {
+    List<Instance.Handle<SqlSessionFactory>> handles = List.of(
+        handle(this.factory1, "manager1", NamedLiteral.of("manager1")),
+        handle(this.factory2, "manager2", NamedLiteral.of("manager2")),
+        handle(this.factory3, null, MY_SPECIAL_MANAGER, OTHER_QUALIFIER),
+        handle(this.replica1, null, new ReadReplicaLiteral("manager1")));
+    init(this.registry, handles);
+  }
+
+  @SuppressWarnings("unchecked")
+  private static void init(SqlSessionManagerRegistry registry, List<Instance.Handle<SqlSessionFactory>> handles)
+      throws Exception {
+    Instance<SqlSessionFactory> factories = mock(Instance.class);
+    doReturn(handles).when(factories).handles();
+    Field field = SqlSessionManagerRegistry.class.getDeclaredField("factories");
+    field.setAccessible(true);
+    field.set(registry, factories);
+    registry.init();
+  }
+
+  @Test
+  void shouldSelectManagersByName() {
+    assertEquals(Set.of(this.registry.getManager(this.factory1), this.registry.getManager(this.factory2)),
+        this.registry.getManagers(new String[] { "manager1", "manager2" }, qualifiers()));
+  }
+
+  @Test
+  void shouldSelectManagersByQualifier() {
+    assertEquals(Set.of(this.registry.getManager(this.factory3)),
+        this.registry.getManagers(new String[0], qualifiers(MySpecialManager.class)));
+  }
+
+  @Test
+  void shouldSelectManagersByNameOrQualifier() {
+    assertEquals(Set.of(this.registry.getManager(this.factory1), this.registry.getManager(this.factory3)),
+        this.registry.getManagers(new String[] { "manager1" }, qualifiers(OtherQualifier.class)));
+  }
+
+  @Test
+  void shouldGetManagersByNameOrQualifiers() {
+    assertSame(this.registry.getManager(this.factory1), this.registry.getManager("manager1"));
+    assertSame(this.registry.getManager(this.factory1), this.registry.getManager(NamedLiteral.of("manager1")));
+    assertSame(this.registry.getManager(this.factory3), this.registry.getManager(MY_SPECIAL_MANAGER));
+    assertSame(this.registry.getManager(this.factory3),
+        this.registry.getManager(OTHER_QUALIFIER, MY_SPECIAL_MANAGER));
+    assertThrows(MybatisCdiConfigurationException.class, () -> this.registry.getManager("unknown"));
+    assertThrows(MybatisCdiConfigurationException.class,
+        () -> this.registry.getManager(NamedLiteral.of("manager1"), MY_SPECIAL_MANAGER));
+  }
+
+  @Test
+  void shouldPairReadReplicasWithTheirPrimary() {
+    assertSame(this.registry.getManager(this.replica1),
+        this.registry.getReplica(this.registry.getManager(this.factory1)));
+    assertNull(this.registry.getReplica(this.registry.getManager(this.factory2)));
+  }
+
+  @Test
+  void shouldInstallTheTimeoutPluginWhenCreatingAManagerIfEnabled() throws Exception {
+    Configuration configuration = new Configuration();
+    SqlSessionFactory factory = mock(SqlSessionFactory.class);
+    SqlSessionFactory sameConfiguration = mock(SqlSessionFactory.class);
+    when(factory.getConfiguration()).thenReturn(configuration);
+    when(sameConfiguration.getConfiguration()).thenReturn(configuration);
+    System.setProperty(SqlSessionManagerRegistry.TIMEOUT_PLUGIN_PROPERTY, "true");
+    try {
+      init(new SqlSessionManagerRegistry(), List.of(handle(factory, null), handle(sameConfiguration, null)));
+    } finally {
+      System.clearProperty(SqlSessionManagerRegistry.TIMEOUT_PLUGIN_PROPERTY);
+    }
+
+    assertEquals(1, configuration.getInterceptors().size());
+    assertInstanceOf(TransactionTimeoutInterceptor.class, configuration.getInterceptors().get(0));
+  }
+
+  @Test
+  void shouldLeaveThePluginsUntouchedByDefault() throws Exception {
+    Configuration configuration = new Configuration();
+    SqlSessionFactory factory = mock(SqlSessionFactory.class);
+    when(factory.getConfiguration()).thenReturn(configuration);
+    init(new SqlSessionManagerRegistry(), List.of(handle(factory, null)));
+
+    assertTrue(configuration.getInterceptors().isEmpty());
+    verify(factory, never()).getConfiguration();
+  }
+
+  @Test
+  void shouldFailOnUnknownNamesAndQualifiers() {
+    assertThrows(MybatisCdiConfigurationException.class,
+        () -> this.registry.getManagers(new String[] { "unknown" }, qualifiers()));
+    assertThrows(MybatisCdiConfigurationException.class,
+        () -> this.registry.getManagers(new String[0], qualifiers(Transactional.class)));
+  }
+
+  @Test
+  void shouldInitializeFactoriesInParallel() throws Exception {
+    SqlSessionManagerRegistry parallel = new SqlSessionManagerRegistry();
+    System.setProperty(SqlSessionManagerRegistry.INIT_MODE_PROPERTY, "parallel");
+    try {
+      init(parallel, List.of(handle(this.factory1, "manager1", NamedLiteral.of("manager1")),
+          handle(this.factory2, "manager2", NamedLiteral.of("manager2")),
+          handle(this.replica1, null, new ReadReplicaLiteral("manager1"))));
+    } finally {
+      System.clearProperty(SqlSessionManagerRegistry.INIT_MODE_PROPERTY);
+    }
+    assertEquals(3, parallel.getManagers().size());
+    assertEquals(Set.of(parallel.getManager(this.factory1)),
+        parallel.getManagers(new String[] { "manager1" }, qualifiers()));
+    assertSame(parallel.getManager(this.replica1), parallel.getReplica(parallel.getManager(this.factory1)));
+  }
+
+  @Test
+  void shouldReportTheFailureOfAFactoryInitializedInParallel() throws Exception {
+    SqlSessionManagerRegistry parallel = new SqlSessionManagerRegistry();
+    IllegalStateException cause = new IllegalStateException("broken config");
+    Instance.Handle<SqlSessionFactory> broken = handle(this.factory2, "manager2", NamedLiteral.of("manager2"));
+    when(broken.get()).thenThrow(cause);
+    System.setProperty(SqlSessionManagerRegistry.INIT_MODE_PROPERTY, "parallel");
+    try {
+      MybatisCdiConfigurationException e = assertThrows(MybatisCdiConfigurationException.class,
+          () -> init(parallel, List.of(handle(this.factory1, "manager1", NamedLiteral.of("manager1")), broken)));
+      assertSame(cause, e.getCause());
+    } finally {
+      System.clearProperty(SqlSessionManagerRegistry.INIT_MODE_PROPERTY);
+    }
+  }
+
+  @Test
+  void shouldCreateManagersOnFirstUseWhenLazy() throws Exception {
+    SqlSessionManagerRegistry lazy = new SqlSessionManagerRegistry();
+    Instance.Handle<SqlSessionFactory> handle1 = handle(this.factory1, "manager1", NamedLiteral.of("manager1"));
+    Instance.Handle<SqlSessionFactory> handle2 = handle(this.factory2, "manager2", NamedLiteral.of("manager2"));
+    System.setProperty(SqlSessionManagerRegistry.INIT_MODE_PROPERTY, "lazy");
+    try {
+      init(lazy, List.of(handle1, handle2));
+    } finally {
+      System.clearProperty(SqlSessionManagerRegistry.INIT_MODE_PROPERTY);
+    }
+    verify(handle1, never()).get();
+    verify(handle2, never()).get();
+    assertTrue(lazy.getManagers().isEmpty());
+
+    SqlSessionManager manager1 = lazy.getManager(this.factory1);
+    assertSame(manager1, lazy.getManager(this.factory1));
+    assertEquals(Set.of(manager1), Set.copyOf(lazy.getManagers()));
+
+    assertEquals(Set.of(manager1), lazy.getManagers(new String[] { "manager1" }, qualifiers()));
+    SqlSessionManager manager2 = lazy.getManagers(new String[] { "manager2" }, qualifiers()).iterator().next();
+    assertSame(manager2, lazy.getManager(this.factory2));
+    verify(handle2).get();
+  }
+
+  @Test
+  void shouldOnlyCreateTheNeededReplicaWhenLazy() throws Exception {
+    SqlSessionManagerRegistry lazy = new SqlSessionManagerRegistry();
+    SqlSessionFactory replica2 = mock(SqlSessionFactory.class);
+    Instance.Handle<SqlSessionFactory> replicaHandle1 = handle(this.replica1, null, new ReadReplicaLiteral("manager1"));
+    Instance.Handle<SqlSessionFactory> replicaHandle2 = handle(replica2, null, new ReadReplicaLiteral("manager2"));
+    System.setProperty(SqlSessionManagerRegistry.INIT_MODE_PROPERTY, "lazy");
+    try {
+      init(lazy, List.of(handle(this.factory1, "manager1", NamedLiteral.of("manager1")),
+          handle(this.factory2, "manager2", NamedLiteral.of("manager2")), replicaHandle1, replicaHandle2));
+    } finally {
+      System.clearProperty(SqlSessionManagerRegistry.INIT_MODE_PROPERTY);
+    }
+
+    SqlSessionManager manager1 = lazy.getManager(this.factory1);
+    SqlSessionManager replica = lazy.getReplica(manager1);
+
+    assertSame(lazy.getManager(this.replica1), replica);
+    assertSame(replica, lazy.getReplica(manager1));
+    assertEquals(Set.of(manager1, replica), Set.copyOf(lazy.getManagers()));
+    verify(replicaHandle2, never()).get();
+  }
+
+  @Test
+  void shouldRejectAnUnknownInitMode() {
+    assertThrows(MybatisCdiConfigurationException.class, () -> SqlSessionManagerRegistry.InitMode.of("later"));
+    assertEquals(SqlSessionManagerRegistry.InitMode.PARALLEL, SqlSessionManagerRegistry.InitMode.of(" Parallel"));
+  }
+
+  @SafeVarargs
+  private static Class<? extends Annotation>[] qualifiers(Class<? extends Annotation>... qualifiers) {
+    return qualifiers;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Instance.Handle<SqlSessionFactory> handle(SqlSessionFactory factory, String name,
+      Annotation... qualifiers) {
+    Bean<SqlSessionFactory> bean = mock(Bean.class);
+    when(bean.getName()).thenReturn(name);
+    when(bean.getQualifiers()).thenReturn(Set.of(qualifiers));
+    Instance.Handle<SqlSessionFactory> handle = mock(Instance.Handle.class);
+    when(handle.get()).thenReturn(factory);
+    when(handle.getBean()).thenReturn(bean);
+    return handle;
+  }
+
+}
@@ -0,0 +1,130 @@
+/*
+ *    Copyright 2013-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.cdi;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import jakarta.interceptor.InvocationContext;
+
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.ibatis.exceptions.PersistenceException;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.TransactionIsolationLevel;
+import org.junit.jupiter.api.Test;
+
+class TransactionDescriptorTest {
+
+  @Transactional(executorType = ExecutorType.REUSE, rollbackFor = RollbackException.class)
+  static class SampleService {
+
+    public void classLevel() {
+      // nothing to do
+    }
+
+    @Transactional(executorType = ExecutorType.BATCH, isolation = Isolation.SERIALIZABLE, force = true,
+        rollbackOnly = true)
+    public void methodLevel() {
+      // nothing to do
+    }
+
+  }
+
+  @Transactional(retrySqlStates = { "40001", "40001" })
+  static class DuplicateRetrySqlStates {
+  }
+
+  private final LocalTransactionInterceptor interceptor = new LocalTransactionInterceptor();
+
+  @Test
+  void shouldUseMethodAnnotation() throws Exception {
+    TransactionDescriptor descriptor = TransactionDescriptor.of(context("methodLevel"),
+        LocalTransactionInterceptor.class, this.interceptor::getTransactionalAnnotation);
+    assertEquals(ExecutorType.BATCH, descriptor.getExecutorType());
+    assertEquals(TransactionIsolationLevel.SERIALIZABLE, descriptor.getIsolationLevel());
+    assertTrue(descriptor.isForce());
+    assertTrue(descriptor.isRollbackOnly());
+  }
+
+  @Test
+  void shouldFallBackToClassAnnotation() throws Exception {
+    TransactionDescriptor descriptor = TransactionDescriptor.of(context("classLevel"),
+        LocalTransactionInterceptor.class, this.interceptor::getTransactionalAnnotation);
+    assertEquals(ExecutorType.REUSE, descriptor.getExecutorType());
+    assertNull(descriptor.getIsolationLevel());
+    assertFalse(descriptor.isForce());
+    assertFalse(descriptor.isRollbackOnly());
+  }
+
+  @Test
+  void shouldResolveEachMethodOnlyOnce() throws Exception {
+    AtomicInteger resolutions = new AtomicInteger();
+    InvocationContext ctx = context("classLevel");
+    TransactionDescriptor first = TransactionDescriptor.of(ctx, LocalTransactionInterceptor.class, c -> {
+      resolutions.incrementAndGet();
+      return this.interceptor.getTransactionalAnnotation(c);
+    });
+    TransactionDescriptor second = TransactionDescriptor.of(ctx, LocalTransactionInterceptor.class, c -> {
+      resolutions.incrementAndGet();
+      return this.interceptor.getTransactionalAnnotation(c);
+    });
+    assertSame(first, second);
+    assertTrue(resolutions.get() <= 1);
+  }
+
+  @Test
+  void shouldKeepTheDescriptorsOfEachInterceptorClassApart() throws Exception {
+    InvocationContext ctx = context("methodLevel");
+    TransactionDescriptor local = TransactionDescriptor.of(ctx, LocalTransactionInterceptor.class,
+        this.interceptor::getTransactionalAnnotation);
+    TransactionDescriptor overridden = TransactionDescriptor.of(ctx, JtaTransactionInterceptor.class,
+        c -> SampleService.class.getAnnotation(Transactional.class));
+    assertEquals(ExecutorType.BATCH, local.getExecutorType());
+    assertEquals(ExecutorType.REUSE, overridden.getExecutorType());
+  }
+
+  @Test
+  void shouldDecideRollbackByExceptionType() throws Exception {
+    TransactionDescriptor descriptor = new TransactionDescriptor(
+        SampleService.class.getAnnotation(Transactional.class));
+    assertTrue(descriptor.needsRollback(new IllegalStateException()));
+    assertTrue(descriptor.needsRollback(new RollbackException()));
+    assertFalse(descriptor.needsRollback(new NoRollbackException()));
+    assertFalse(descriptor.needsRollback(new NoRollbackException()));
+  }
+
+  @Test
+  void shouldAcceptDuplicateRetrySqlStates() throws Exception {
+    TransactionDescriptor descriptor = new TransactionDescriptor(
+        DuplicateRetrySqlStates.class.getAnnotation(Transactional.class));
+    assertTrue(descriptor.isRetryable(new PersistenceException(new SQLException("deadlock", "40001"))));
+    assertFalse(descriptor.isRetryable(new PersistenceException(new SQLException("deadlock", "40P01"))));
+  }
+
+  private InvocationContext context(String methodName) throws NoSuchMethodException {
+    InvocationContext ctx = mock(InvocationContext.class);
+    when(ctx.getMethod()).thenReturn(SampleService.class.getMethod(methodName));
+    return ctx;
+  }
+
+}
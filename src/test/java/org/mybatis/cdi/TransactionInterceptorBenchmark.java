@@ -0,0 +1,108 @@
+/*
+ *    Copyright 2013-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.cdi;
+
+import jakarta.enterprise.inject.literal.NamedLiteral;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures a query run in a transactional method demarcated by {@link LocalTransactionInterceptor} and by
+ * {@link JtaTransactionInterceptor} with Narayana, next to the same mapper query on {@code manager1} without
+ * transaction. Each interceptor runs in its own container, so a benchmark only starts the container it needs.
+ * <p>
+ * Run with {@code mvn -Pbenchmark test-compile exec:exec -Dbenchmark=TransactionInterceptorBenchmark}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TransactionInterceptorBenchmark {
+
+  /**
+   * Beans of the container where {@link LocalTransactionInterceptor} is enabled.
+   */
+  @State(Scope.Benchmark)
+  public static class Local {
+
+    private UserMapper mapper;
+
+    private FooService service;
+
+    @Setup
+    public void setup(WeldBenchmarkState weld) {
+      this.mapper = weld.select(UserMapper.class, NamedLiteral.of("manager1"));
+      this.service = weld.select(FooService.class);
+    }
+
+  }
+
+  /**
+   * Beans of the container where {@link JtaTransactionInterceptor} is enabled.
+   */
+  @State(Scope.Benchmark)
+  public static class Jta {
+
+    private JtaUserService service;
+
+    @Setup
+    public void setup(WeldJtaBenchmarkState weld) {
+      this.service = weld.select(JtaUserService.class);
+    }
+
+  }
+
+  @Benchmark
+  public User noTransaction(Local local) {
+    return local.mapper.getUser(1);
+  }
+
+  @Benchmark
+  public User localTransaction(Local local) {
+    return local.service.getUser(1);
+  }
+
+  @Benchmark
+  public User jtaTransaction(Jta jta) {
+    return jta.service.getUser(1);
+  }
+
+  @Benchmark
+  @Threads(4)
+  public User localTransaction4Threads(Local local) {
+    return local.service.getUser(1);
+  }
+
+  @Benchmark
+  @Threads(4)
+  public User jtaTransaction4Threads(Jta jta) {
+    return jta.service.getUser(1);
+  }
+
+}
@@ -0,0 +1,58 @@
+/*
+ *    Copyright 2013-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.cdi;
+
+import java.lang.annotation.Annotation;
+
+import org.jboss.weld.environment.se.Weld;
+import org.jboss.weld.environment.se.WeldContainer;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Weld SE container with the test beans and the H2 databases, shared by all the threads of a benchmark.
+ */
+@State(Scope.Benchmark)
+public class WeldBenchmarkState {
+
+  private WeldContainer container;
+
+  @Setup
+  public void setup() {
+    this.container = createWeld().initialize();
+  }
+
+  /**
+   * Creates the container, discovering the test beans with the interceptors enabled in {@code beans.xml}.
+   *
+   * @return the container to initialize
+   */
+  protected Weld createWeld() {
+    return new Weld();
+  }
+
+  @TearDown
+  public void tearDown() {
+    this.container.shutdown();
+  }
+
+  public <T> T select(Class<T> type, Annotation... qualifiers) {
+    return this.container.select(type, qualifiers).get();
+  }
+
+}
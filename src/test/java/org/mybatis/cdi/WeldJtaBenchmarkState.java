@@ -0,0 +1,38 @@
+/*
+ *    Copyright 2013-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.cdi;
+
+import org.jboss.weld.bootstrap.spi.BeanDiscoveryMode;
+import org.jboss.weld.environment.se.Weld;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Weld SE container of the test beans where {@link JtaTransactionInterceptor} is the only transaction interceptor.
+ * Discovery is disabled, so the {@link LocalTransactionInterceptor} enabled in {@code beans.xml} does not apply and
+ * {@link MybatisExtension} is not loaded from its service file.
+ */
+@State(Scope.Benchmark)
+public class WeldJtaBenchmarkState extends WeldBenchmarkState {
+
+  @Override
+  protected Weld createWeld() {
+    return new Weld().disableDiscovery().setBeanDiscoveryMode(BeanDiscoveryMode.ALL)
+        .addPackages(false, WeldJtaBenchmarkState.class).addExtension(new MybatisExtension())
+        .enableInterceptors(JtaTransactionInterceptor.class);
+  }
+
+}
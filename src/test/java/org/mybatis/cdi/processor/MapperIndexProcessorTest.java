@@ -0,0 +1,149 @@
+/*
+ *    Copyright 2013-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.cdi.processor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaCompiler.CompilationTask;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mybatis.cdi.MapperIndex;
+
+class MapperIndexProcessorTest {
+
+  private static final String SAMPLE_MAPPER = """
+      package sample;
+
+      import jakarta.enterprise.context.ApplicationScoped;
+
+      import org.mybatis.cdi.Mapper;
+
+      @Mapper
+      @ApplicationScoped
+      public interface SampleMapper {
+        int count();
+      }
+      """;
+
+  private static final String SAMPLE_SERVICE = """
+      package sample;
+
+      import jakarta.inject.Inject;
+      import jakarta.inject.Named;
+
+      import org.apache.ibatis.session.SqlSession;
+      import org.mybatis.cdi.OtherQualifier;
+
+      public class SampleService extends BaseService {
+
+        @Inject
+        @Named("manager1")
+        SampleMapper mapper;
+
+        @Inject
+        SampleService(@OtherQualifier SqlSession session, Runnable ignored) {
+        }
+
+      }
+      """;
+
+  private static final String BASE_SERVICE = """
+      package sample;
+
+      import jakarta.inject.Inject;
+
+      public class BaseService {
+
+        @Inject
+        void init(SampleMapper mapper) {
+        }
+
+      }
+      """;
+
+  private static final String QUALIFIED_SERVICE = """
+      package sample;
+
+      import java.lang.annotation.Retention;
+      import java.lang.annotation.RetentionPolicy;
+
+      import jakarta.inject.Inject;
+      import jakarta.inject.Qualifier;
+
+      public class QualifiedService {
+
+        @Qualifier
+        @Retention(RetentionPolicy.RUNTIME)
+        @interface Database {
+          String value();
+        }
+
+        @Inject
+        @Database("reports")
+        SampleMapper mapper;
+
+      }
+      """;
+
+  @TempDir
+  Path tempDir;
+
+  @Test
+  void shouldIndexMappersAndTheirInjectionPoints() throws IOException {
+    Path sources = this.tempDir.resolve("src/sample");
+    Path classes = this.tempDir.resolve("classes");
+    Files.createDirectories(sources);
+    Files.createDirectories(classes);
+    Files.writeString(sources.resolve("SampleMapper.java"), SAMPLE_MAPPER);
+    Files.writeString(sources.resolve("SampleService.java"), SAMPLE_SERVICE);
+    Files.writeString(sources.resolve("BaseService.java"), BASE_SERVICE);
+    Files.writeString(sources.resolve("QualifiedService.java"), QUALIFIED_SERVICE);
+
+    JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+    DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+    try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, null)) {
+      CompilationTask task = compiler.getTask(null, fileManager, diagnostics,
+          List.of("-classpath", System.getProperty("java.class.path"), "-d", classes.toString()), null,
+          fileManager.getJavaFileObjects(sources.resolve("SampleMapper.java"), sources.resolve("SampleService.java"),
+              sources.resolve("BaseService.java"), sources.resolve("QualifiedService.java")));
+      task.setProcessors(List.of(new MapperIndexProcessor()));
+      assertTrue(task.call(), diagnostics.getDiagnostics()::toString);
+    }
+
+    List<String> index = Files.readAllLines(classes.resolve(MapperIndex.RESOURCE));
+    assertEquals(List.of(
+        "# Generated by org.mybatis.cdi.processor.MapperIndexProcessor",
+        "mapper\tsample.SampleMapper\tjakarta.enterprise.context.ApplicationScoped",
+        "inject\torg.apache.ibatis.session.SqlSession\torg.mybatis.cdi.OtherQualifier",
+        "inject\tsample.SampleMapper",
+        "inject\tsample.SampleMapper\tjakarta.inject.Named=manager1",
+        "target\tsample.BaseService",
+        "target\tsample.SampleService"), index);
+  }
+
+}
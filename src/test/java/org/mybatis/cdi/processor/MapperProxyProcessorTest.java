@@ -0,0 +1,107 @@
+/*
+ *    Copyright 2013-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.mybatis.cdi.processor;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaCompiler.CompilationTask;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class MapperProxyProcessorTest {
+
+  private static final String SAMPLE_MAPPER = """
+      package sample;
+
+      import java.io.IOException;
+      import java.util.List;
+
+      import org.mybatis.cdi.Mapper;
+
+      @Mapper
+      public interface SampleMapper {
+
+        <T extends Number> List<T> find(T id, String... names) throws IOException;
+
+        void insert(int value);
+
+        default int count() {
+          return 0;
+        }
+
+        @Mapper
+        interface NestedMapper {
+          String name();
+        }
+
+        @Mapper
+        interface GenericMapper<T> {
+          T get();
+        }
+
+      }
+      """;
+
+  @TempDir
+  Path tempDir;
+
+  @Test
+  void shouldGenerateACompilableProxyForEachMapper() throws IOException {
+    Path source = this.tempDir.resolve("src/sample/SampleMapper.java");
+    Path generated = this.tempDir.resolve("generated");
+    Path classes = this.tempDir.resolve("classes");
+    Files.createDirectories(source.getParent());
+    Files.createDirectories(generated);
+    Files.createDirectories(classes);
+    Files.writeString(source, SAMPLE_MAPPER);
+
+    JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+    DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+    try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, null)) {
+      CompilationTask task = compiler.getTask(null, fileManager, diagnostics,
+          List.of("-classpath", System.getProperty("java.class.path"), "-d", classes.toString(), "-s",
+              generated.toString()),
+          null, fileManager.getJavaFileObjects(source));
+      task.setProcessors(List.of(new MapperProxyProcessor()));
+      assertTrue(task.call(), diagnostics.getDiagnostics()::toString);
+    }
+
+    String proxy = Files.readString(generated.resolve("sample/SampleMapper_MybatisCdiProxy.java"));
+    assertTrue(proxy.contains("extends org.mybatis.cdi.GeneratedMapperProxy<sample.SampleMapper>"));
+    assertTrue(proxy.contains("public <T extends java.lang.Number> java.util.List<T> find(T arg0,"
+        + " java.lang.String... arg1) throws java.io.IOException"));
+    assertTrue(proxy.contains("return delegate().find(arg0, arg1);"));
+    assertTrue(proxy.contains("delegate().insert(arg0);"));
+    assertFalse(proxy.contains("count()"));
+
+    assertTrue(Files.exists(classes.resolve("sample/SampleMapper_MybatisCdiProxy.class")));
+    assertTrue(Files.exists(classes.resolve("sample/SampleMapper$NestedMapper_MybatisCdiProxy.class")));
+    assertFalse(Files.exists(generated.resolve("sample/SampleMapper$GenericMapper_MybatisCdiProxy.java")));
+  }
+
+}